@@ -23,6 +23,7 @@ import dan200.computercraft.api.turtle.event.TurtleAction;
 import dan200.computercraft.core.apis.AddressPredicate;
 import dan200.computercraft.core.apis.ApiFactories;
 import dan200.computercraft.core.apis.http.websocket.Websocket;
+import dan200.computercraft.core.computer.BootQueue;
 import dan200.computercraft.core.computer.MainThread;
 import dan200.computercraft.core.filesystem.ComboMount;
 import dan200.computercraft.core.filesystem.FileMount;
@@ -32,6 +33,7 @@ import dan200.computercraft.shared.*;
 import dan200.computercraft.shared.computer.blocks.BlockCommandComputer;
 import dan200.computercraft.shared.computer.blocks.BlockComputer;
 import dan200.computercraft.shared.computer.core.ClientComputerRegistry;
+import dan200.computercraft.shared.computer.core.ComputerGrouping;
 import dan200.computercraft.shared.computer.core.ServerComputerRegistry;
 import dan200.computercraft.shared.computer.items.ItemCommandComputer;
 import dan200.computercraft.shared.computer.items.ItemComputer;
@@ -115,8 +117,22 @@ public class ComputerCraft
     public static boolean logPeripheralErrors = false;
 
     public static int computer_threads = 1;
+    public static int maxComputerThreads = 0;
+    public static boolean workStealing = false;
+    public static ComputerGrouping computerGrouping = ComputerGrouping.NONE;
+    public static boolean coalesceEvents = false;
+    public static boolean prewarmMachines = false;
+    public static int maxBootsPerSecond = 0;
+    public static int maxConcurrentBoots = 0;
+    public static int maxCoroutines = 0;
+    public static int maxCoroutinesPerComputer = 0;
+    public static long cpuQuotaTime = 0;
+    public static long cpuQuotaPeriod = TimeUnit.SECONDS.toNanos( 1 );
+    public static long profilerInterval = TimeUnit.MILLISECONDS.toNanos( 1 );
     public static long maxMainGlobalTime = TimeUnit.MILLISECONDS.toNanos( 10 );
     public static long maxMainComputerTime = TimeUnit.MILLISECONDS.toNanos( 5 );
+    public static long minMainGlobalTime = TimeUnit.MILLISECONDS.toNanos( 10 );
+    public static long minMainComputerTime = TimeUnit.MILLISECONDS.toNanos( 5 );
 
     public static boolean http_enable = true;
     public static boolean http_websocket_enable = true;
@@ -276,6 +292,7 @@ public class ComputerCraft
             ComputerCraft.serverComputerRegistry.reset();
             WirelessNetwork.resetNetworks();
             MainThread.reset();
+            BootQueue.reset();
             Tracking.reset();
         }
     }
@@ -288,6 +305,7 @@ public class ComputerCraft
             ComputerCraft.serverComputerRegistry.reset();
             WirelessNetwork.resetNetworks();
             MainThread.reset();
+            BootQueue.reset();
             Tracking.reset();
         }
     }
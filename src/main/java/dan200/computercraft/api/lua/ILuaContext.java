@@ -29,6 +29,7 @@ public interface ILuaContext
      * @throws InterruptedException If the user shuts down or reboots the computer while pullEvent() is waiting for an
      *                              event, InterruptedException will be thrown. This exception must not be caught or
      *                              intercepted, or the computer will leak memory and end up in a broken state.
+     * @see MethodResult#pullEvent(String, ILuaCallback)
      */
     @Nonnull
     default Object[] pullEvent( @Nullable String filter ) throws LuaException, InterruptedException
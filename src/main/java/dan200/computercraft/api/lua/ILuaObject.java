@@ -52,4 +52,27 @@ public interface ILuaObject
      */
     @Nullable
     Object[] callMethod( @Nonnull ILuaContext context, int method, @Nonnull Object[] arguments ) throws LuaException, InterruptedException;
+
+    /**
+     * Called when a user calls one of the methods that this object implements. Unlike
+     * {@link #callMethod(ILuaContext, int, Object[])}, this may yield without blocking the computer thread, by returning
+     * a {@link MethodResult} with a callback.
+     *
+     * By default this calls {@link #callMethod(ILuaContext, int, Object[])} and returns its values immediately.
+     *
+     * @param context   The context of the currently running lua thread.
+     * @param method    An integer identifying which of the methods from getMethodNames() the computercraft
+     *                  wishes to call.
+     * @param arguments The arguments for this method.
+     * @return The result of this method: either some values to return immediately, or a yield.
+     * @throws LuaException         If the method threw an error.
+     * @throws InterruptedException If the computer was shut down while this method was blocking.
+     * @see #callMethod(ILuaContext, int, Object[])
+     * @see MethodResult
+     */
+    @Nonnull
+    default MethodResult callMethodResult( @Nonnull ILuaContext context, int method, @Nonnull Object[] arguments ) throws LuaException, InterruptedException
+    {
+        return MethodResult.of( callMethod( context, method, arguments ) );
+    }
 }
@@ -0,0 +1,158 @@
+/*
+ * This file is part of the public ComputerCraft API - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2020. This API may be redistributed unmodified and in full only.
+ * For help using the API, and posting your mods, visit the forums at computercraft.info.
+ */
+package dan200.computercraft.api.lua;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Objects;
+
+/**
+ * The result of invoking a Lua method.
+ *
+ * Method results either return a value immediately ({@link #of(Object...)}) or yield control to the parent coroutine.
+ * When the current coroutine is resumed, we invoke the provided {@link ILuaCallback#resume(Object[])} callback.
+ *
+ * Unlike {@link ILuaContext#yield(Object[])}, yielding via a method result does not block a Java thread while the
+ * computer waits to be resumed.
+ *
+ * @see ILuaObject#callMethodResult(ILuaContext, int, Object[])
+ */
+public final class MethodResult
+{
+    private static final MethodResult empty = new MethodResult( null, null );
+
+    private final Object[] result;
+    private final ILuaCallback callback;
+
+    private MethodResult( Object[] arguments, ILuaCallback callback )
+    {
+        this.result = arguments;
+        this.callback = callback;
+    }
+
+    /**
+     * Return no values immediately.
+     *
+     * @return A method result which returns immediately with no values.
+     */
+    @Nonnull
+    public static MethodResult of()
+    {
+        return empty;
+    }
+
+    /**
+     * Return a single value immediately.
+     *
+     * @param value The value to return to the caller.
+     * @return A method result which returns immediately with the given value.
+     */
+    @Nonnull
+    public static MethodResult of( @Nullable Object value )
+    {
+        return new MethodResult( new Object[] { value }, null );
+    }
+
+    /**
+     * Return any number of values immediately.
+     *
+     * @param values The values to return. See {@link ILuaObject#callMethod(ILuaContext, int, Object[])} for the
+     *               valid values and conversion rules.
+     * @return A method result which returns immediately with the given values.
+     */
+    @Nonnull
+    public static MethodResult of( @Nullable Object... values )
+    {
+        return values == null || values.length == 0 ? empty : new MethodResult( values, null );
+    }
+
+    /**
+     * Wait for an event to occur on the computer, suspending the coroutine until it arises. This method is exactly
+     * equivalent to {@code os.pullEvent()} in Lua.
+     *
+     * @param filter   A specific event to wait for, or null to wait for any event.
+     * @param callback The callback to resume with the name of the event that occurred, and any event parameters.
+     * @return The method result which represents this yield.
+     * @see ILuaContext#pullEvent(String)
+     */
+    @Nonnull
+    public static MethodResult pullEvent( @Nullable String filter, @Nonnull ILuaCallback callback )
+    {
+        Objects.requireNonNull( callback, "callback cannot be null" );
+        return new MethodResult( new Object[] { filter }, results -> {
+            if( results.length >= 1 && "terminate".equals( results[0] ) ) throw new LuaException( "Terminated", 0 );
+            return callback.resume( results );
+        } );
+    }
+
+    /**
+     * The same as {@link #pullEvent(String, ILuaCallback)}, except "terminated" events are ignored. Only use this if
+     * you want to prevent program termination, which is not recommended. This method is exactly equivalent to
+     * {@code os.pullEventRaw()} in Lua.
+     *
+     * @param filter   A specific event to wait for, or null to wait for any event.
+     * @param callback The callback to resume with the name of the event that occurred, and any event parameters.
+     * @return The method result which represents this yield.
+     * @see #pullEvent(String, ILuaCallback)
+     */
+    @Nonnull
+    public static MethodResult pullEventRaw( @Nullable String filter, @Nonnull ILuaCallback callback )
+    {
+        Objects.requireNonNull( callback, "callback cannot be null" );
+        return new MethodResult( new Object[] { filter }, callback );
+    }
+
+    /**
+     * Yield the current coroutine with some arguments until it is resumed. This method is exactly equivalent to
+     * {@code coroutine.yield()} in Lua. Use {@code pullEvent()} if you wish to wait for events.
+     *
+     * @param arguments An object array containing the arguments to pass to coroutine.yield()
+     * @param callback  The callback to resume with an array containing the return values from coroutine.yield()
+     * @return The method result which represents this yield.
+     * @see ILuaContext#yield(Object[])
+     */
+    @Nonnull
+    public static MethodResult yield( @Nullable Object[] arguments, @Nonnull ILuaCallback callback )
+    {
+        Objects.requireNonNull( callback, "callback cannot be null" );
+        return new MethodResult( arguments, callback );
+    }
+
+    @Nullable
+    public Object[] getResult()
+    {
+        return result;
+    }
+
+    @Nullable
+    public ILuaCallback getCallback()
+    {
+        return callback;
+    }
+
+    /**
+     * Run this method result to completion, blocking the current thread while waiting for any yields.
+     *
+     * This should only be used where a method must return its values directly (such as from
+     * {@link ILuaObject#callMethod(ILuaContext, int, Object[])}). Prefer returning the method result itself where
+     * possible.
+     *
+     * @param context The context to yield with.
+     * @return The final values returned by this method.
+     * @throws LuaException         If any callback threw an error.
+     * @throws InterruptedException If the computer was shut down while waiting.
+     */
+    @Nullable
+    public Object[] evaluate( @Nonnull ILuaContext context ) throws LuaException, InterruptedException
+    {
+        MethodResult current = this;
+        while( current.callback != null )
+        {
+            current = current.callback.resume( context.yield( current.result ) );
+        }
+        return current.result;
+    }
+}
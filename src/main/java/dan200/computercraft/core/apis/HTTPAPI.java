@@ -7,11 +7,13 @@ package dan200.computercraft.core.apis;
 
 import dan200.computercraft.ComputerCraft;
 import dan200.computercraft.api.lua.ILuaAPI;
-import dan200.computercraft.api.lua.ILuaContext;
 import dan200.computercraft.api.lua.LuaException;
 import dan200.computercraft.core.apis.http.*;
 import dan200.computercraft.core.apis.http.request.HttpRequest;
 import dan200.computercraft.core.apis.http.websocket.Websocket;
+import dan200.computercraft.core.lua.AnnotatedLuaObject;
+import dan200.computercraft.core.lua.IArguments;
+import dan200.computercraft.core.lua.LuaFunction;
 import io.netty.handler.codec.http.DefaultHttpHeaders;
 import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.HttpMethod;
@@ -22,10 +24,9 @@ import java.util.Collections;
 import java.util.Locale;
 import java.util.Map;
 
-import static dan200.computercraft.api.lua.ArgumentHelper.*;
 import static dan200.computercraft.core.apis.TableHelper.*;
 
-public class HTTPAPI implements ILuaAPI
+public class HTTPAPI implements ILuaAPI, AnnotatedLuaObject
 {
     private final IAPIEnvironment m_apiEnvironment;
 
@@ -68,135 +69,118 @@ public class HTTPAPI implements ILuaAPI
         Resource.cleanup();
     }
 
-    @Nonnull
-    @Override
-    public String[] getMethodNames()
-    {
-        return new String[] {
-            "request",
-            "checkURL",
-            "websocket",
-        };
-    }
-
-    @Override
+    @LuaFunction
     @SuppressWarnings( "resource" )
-    public Object[] callMethod( @Nonnull ILuaContext context, int method, @Nonnull Object[] args ) throws LuaException
+    public final Object[] request( IArguments args ) throws LuaException
     {
-        switch( method )
-        {
-            case 0: // request
-            {
-                String address, postString, requestMethod;
-                Map<?, ?> headerTable;
-                boolean binary, redirect;
+        String address, postString, requestMethod;
+        Map<?, ?> headerTable;
+        boolean binary, redirect;
 
-                if( args.length >= 1 && args[0] instanceof Map )
-                {
-                    Map<?, ?> options = (Map<?, ?>) args[0];
-                    address = getStringField( options, "url" );
-                    postString = optStringField( options, "body", null );
-                    headerTable = optTableField( options, "headers", Collections.emptyMap() );
-                    binary = optBooleanField( options, "binary", false );
-                    requestMethod = optStringField( options, "method", null );
-                    redirect = optBooleanField( options, "redirect", true );
+        if( args.getType( 0 ).equals( "table" ) )
+        {
+            Map<?, ?> options = args.getTable( 0 );
+            address = getStringField( options, "url" );
+            postString = optStringField( options, "body", null );
+            headerTable = optTableField( options, "headers", Collections.emptyMap() );
+            binary = optBooleanField( options, "binary", false );
+            requestMethod = optStringField( options, "method", null );
+            redirect = optBooleanField( options, "redirect", true );
 
-                }
-                else
-                {
-                    // Get URL and post information
-                    address = getString( args, 0 );
-                    postString = optString( args, 1, null );
-                    headerTable = optTable( args, 2, Collections.emptyMap() );
-                    binary = optBoolean( args, 3, false );
-                    requestMethod = null;
-                    redirect = true;
-                }
+        }
+        else
+        {
+            // Get URL and post information
+            address = args.getString( 0 );
+            postString = args.optString( 1, null );
+            headerTable = args.optTable( 2, Collections.emptyMap() );
+            binary = args.optBoolean( 3, false );
+            requestMethod = null;
+            redirect = true;
+        }
 
-                HttpHeaders headers = getHeaders( headerTable );
+        HttpHeaders headers = getHeaders( headerTable );
 
 
-                HttpMethod httpMethod;
-                if( requestMethod == null )
-                {
-                    httpMethod = postString == null ? HttpMethod.GET : HttpMethod.POST;
-                }
-                else
-                {
-                    httpMethod = HttpMethod.valueOf( requestMethod.toUpperCase( Locale.ROOT ) );
-                    if( httpMethod == null || requestMethod.equalsIgnoreCase( "CONNECT" ) )
-                    {
-                        throw new LuaException( "Unsupported HTTP method" );
-                    }
-                }
+        HttpMethod httpMethod;
+        if( requestMethod == null )
+        {
+            httpMethod = postString == null ? HttpMethod.GET : HttpMethod.POST;
+        }
+        else
+        {
+            httpMethod = HttpMethod.valueOf( requestMethod.toUpperCase( Locale.ROOT ) );
+            if( httpMethod == null || requestMethod.equalsIgnoreCase( "CONNECT" ) )
+            {
+                throw new LuaException( "Unsupported HTTP method" );
+            }
+        }
 
-                try
-                {
-                    URI uri = HttpRequest.checkUri( address );
-                    HttpRequest request = new HttpRequest( requests, m_apiEnvironment, address, postString, headers, binary, redirect );
+        try
+        {
+            URI uri = HttpRequest.checkUri( address );
+            HttpRequest request = new HttpRequest( requests, m_apiEnvironment, address, postString, headers, binary, redirect );
 
-                    long requestBody = request.body().readableBytes() + HttpRequest.getHeaderSize( headers );
-                    if( ComputerCraft.httpMaxUpload != 0 && requestBody > ComputerCraft.httpMaxUpload )
-                    {
-                        throw new HTTPRequestException( "Request body is too large" );
-                    }
+            long requestBody = request.body().readableBytes() + HttpRequest.getHeaderSize( headers );
+            if( ComputerCraft.httpMaxUpload != 0 && requestBody > ComputerCraft.httpMaxUpload )
+            {
+                throw new HTTPRequestException( "Request body is too large" );
+            }
 
-                    // Make the request
-                    request.queue( r -> r.request( uri, httpMethod ) );
+            // Make the request
+            request.queue( r -> r.request( uri, httpMethod ) );
 
-                    return new Object[] { true };
-                }
-                catch( HTTPRequestException e )
-                {
-                    return new Object[] { false, e.getMessage() };
-                }
-            }
-            case 1: // checkURL
-            {
-                String address = getString( args, 0 );
+            return new Object[] { true };
+        }
+        catch( HTTPRequestException e )
+        {
+            return new Object[] { false, e.getMessage() };
+        }
+    }
 
-                // Check URL
-                try
-                {
-                    URI uri = HttpRequest.checkUri( address );
-                    new CheckUrl( checkUrls, m_apiEnvironment, address, uri ).queue( CheckUrl::run );
+    @LuaFunction
+    public final Object[] checkURL( String address )
+    {
+        // Check URL
+        try
+        {
+            URI uri = HttpRequest.checkUri( address );
+            new CheckUrl( checkUrls, m_apiEnvironment, address, uri ).queue( CheckUrl::run );
 
-                    return new Object[] { true };
-                }
-                catch( HTTPRequestException e )
-                {
-                    return new Object[] { false, e.getMessage() };
-                }
-            }
-            case 2: // websocket
-            {
-                String address = getString( args, 0 );
-                Map<?, ?> headerTbl = optTable( args, 1, Collections.emptyMap() );
+            return new Object[] { true };
+        }
+        catch( HTTPRequestException e )
+        {
+            return new Object[] { false, e.getMessage() };
+        }
+    }
 
-                if( !ComputerCraft.http_websocket_enable )
-                {
-                    throw new LuaException( "Websocket connections are disabled" );
-                }
+    @LuaFunction
+    public final Object[] websocket( IArguments args ) throws LuaException
+    {
+        String address = args.getString( 0 );
+        Map<?, ?> headerTbl = args.optTable( 1, Collections.emptyMap() );
 
-                HttpHeaders headers = getHeaders( headerTbl );
+        if( !ComputerCraft.http_websocket_enable )
+        {
+            throw new LuaException( "Websocket connections are disabled" );
+        }
 
-                try
-                {
-                    URI uri = Websocket.checkUri( address );
-                    if( !new Websocket( websockets, m_apiEnvironment, uri, address, headers ).queue( Websocket::connect ) )
-                    {
-                        throw new LuaException( "Too many websockets already open" );
-                    }
+        HttpHeaders headers = getHeaders( headerTbl );
 
-                    return new Object[] { true };
-                }
-                catch( HTTPRequestException e )
-                {
-                    return new Object[] { false, e.getMessage() };
-                }
+        try
+        {
+            URI uri = Websocket.checkUri( address );
+            if( !new Websocket( websockets, m_apiEnvironment, uri, address, headers ).queue( Websocket::connect ) )
+            {
+                throw new LuaException( "Too many websockets already open" );
             }
-            default:
-                return null;
+
+            return new Object[] { true };
+        }
+        catch( HTTPRequestException e )
+        {
+            return new Object[] { false, e.getMessage() };
         }
     }
 
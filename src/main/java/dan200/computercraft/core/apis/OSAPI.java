@@ -6,8 +6,10 @@
 package dan200.computercraft.core.apis;
 
 import dan200.computercraft.api.lua.ILuaAPI;
-import dan200.computercraft.api.lua.ILuaContext;
 import dan200.computercraft.api.lua.LuaException;
+import dan200.computercraft.core.lua.AnnotatedLuaObject;
+import dan200.computercraft.core.lua.IArguments;
+import dan200.computercraft.core.lua.LuaFunction;
 import dan200.computercraft.shared.util.StringUtil;
 
 import javax.annotation.Nonnull;
@@ -18,9 +20,7 @@ import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatterBuilder;
 import java.util.*;
 
-import static dan200.computercraft.api.lua.ArgumentHelper.*;
-
-public class OSAPI implements ILuaAPI
+public class OSAPI implements ILuaAPI, AnnotatedLuaObject
 {
     private IAPIEnvironment m_apiEnvironment;
 
@@ -166,31 +166,6 @@ public class OSAPI implements ILuaAPI
         }
     }
 
-    @Nonnull
-    @Override
-    public String[] getMethodNames()
-    {
-        return new String[] {
-            "queueEvent",
-            "startTimer",
-            "setAlarm",
-            "shutdown",
-            "reboot",
-            "computerID",
-            "getComputerID",
-            "setComputerLabel",
-            "computerLabel",
-            "getComputerLabel",
-            "clock",
-            "time",
-            "day",
-            "cancelTimer",
-            "cancelAlarm",
-            "epoch",
-            "date",
-        };
-    }
-
     private static float getTimeForCalendar( Calendar c )
     {
         float time = c.get( Calendar.HOUR_OF_DAY );
@@ -217,207 +192,212 @@ public class OSAPI implements ILuaAPI
         return c.getTime().getTime();
     }
 
-    @Override
-    public Object[] callMethod( @Nonnull ILuaContext context, int method, @Nonnull Object[] args ) throws LuaException
+    @LuaFunction
+    public final void queueEvent( String name, Object[] args )
+    {
+        queueLuaEvent( name, args );
+    }
+
+    @LuaFunction
+    public final int startTimer( double timer )
+    {
+        synchronized( m_timers )
+        {
+            m_timers.put( m_nextTimerToken, new Timer( (int) Math.round( timer / 0.05 ) ) );
+            return m_nextTimerToken++;
+        }
+    }
+
+    @LuaFunction
+    public final int setAlarm( double time ) throws LuaException
+    {
+        if( time < 0.0 || time >= 24.0 )
+        {
+            throw new LuaException( "Number out of range" );
+        }
+        synchronized( m_alarms )
+        {
+            int day = time > m_time ? m_day : m_day + 1;
+            m_alarms.put( m_nextAlarmToken, new Alarm( time, day ) );
+            return m_nextAlarmToken++;
+        }
+    }
+
+    @LuaFunction( "shutdown" )
+    public final void shutdownComputer()
+    {
+        m_apiEnvironment.shutdown();
+    }
+
+    @LuaFunction
+    public final void reboot()
+    {
+        m_apiEnvironment.reboot();
+    }
+
+    @LuaFunction( { "computerID", "getComputerID" } )
+    public final int getComputerID()
+    {
+        return m_apiEnvironment.getComputerID();
+    }
+
+    @LuaFunction
+    public final void setComputerLabel( IArguments args ) throws LuaException
+    {
+        String label = args.optString( 0, null );
+        m_apiEnvironment.setLabel( StringUtil.normaliseLabel( label ) );
+    }
+
+    @LuaFunction( { "computerLabel", "getComputerLabel" } )
+    public final String getComputerLabel()
+    {
+        return m_apiEnvironment.getLabel();
+    }
+
+    @LuaFunction
+    public final double clock()
+    {
+        synchronized( m_timers )
+        {
+            return m_clock * 0.05;
+        }
+    }
+
+    @LuaFunction
+    public final Object time( IArguments args ) throws LuaException
     {
-        switch( method )
+        Object value = args.get( 0 );
+        if( value instanceof Map ) return LuaDateTime.fromTable( (Map<?, ?>) value );
+
+        String param = args.optString( 0, "ingame" );
+        switch( param.toLowerCase( Locale.ROOT ) )
         {
-            case 0: // queueEvent
-                queueLuaEvent( getString( args, 0 ), trimArray( args, 1 ) );
-                return null;
-            case 1:
+            case "utc":
             {
-                // startTimer
-                double timer = getFiniteDouble( args, 0 );
-                synchronized( m_timers )
-                {
-                    m_timers.put( m_nextTimerToken, new Timer( (int) Math.round( timer / 0.05 ) ) );
-                    return new Object[] { m_nextTimerToken++ };
-                }
+                // Get Hour of day (UTC)
+                Calendar c = Calendar.getInstance( TimeZone.getTimeZone( "UTC" ) );
+                return getTimeForCalendar( c );
             }
-            case 2:
+            case "local":
             {
-                // setAlarm
-                double time = getFiniteDouble( args, 0 );
-                if( time < 0.0 || time >= 24.0 )
-                {
-                    throw new LuaException( "Number out of range" );
-                }
+                // Get Hour of day (local time)
+                Calendar c = Calendar.getInstance();
+                return getTimeForCalendar( c );
+            }
+            case "ingame":
+                // Get ingame hour
                 synchronized( m_alarms )
                 {
-                    int day = time > m_time ? m_day : m_day + 1;
-                    m_alarms.put( m_nextAlarmToken, new Alarm( time, day ) );
-                    return new Object[] { m_nextAlarmToken++ };
+                    return m_time;
                 }
-            }
-            case 3: // shutdown
-                m_apiEnvironment.shutdown();
-                return null;
-            case 4: // reboot
-                m_apiEnvironment.reboot();
-                return null;
-            case 5:
-            case 6: // computerID/getComputerID
-                return new Object[] { getComputerID() };
-            case 7:
+            default:
+                throw new LuaException( "Unsupported operation" );
+        }
+    }
+
+    @LuaFunction
+    public final int day( IArguments args ) throws LuaException
+    {
+        String param = args.optString( 0, "ingame" );
+        switch( param.toLowerCase( Locale.ROOT ) )
+        {
+            case "utc":
             {
-                // setComputerLabel
-                String label = optString( args, 0, null );
-                m_apiEnvironment.setLabel( StringUtil.normaliseLabel( label ) );
-                return null;
+                // Get numbers of days since 1970-01-01 (utc)
+                Calendar c = Calendar.getInstance( TimeZone.getTimeZone( "UTC" ) );
+                return getDayForCalendar( c );
             }
-            case 8:
-            case 9:
+            case "local":
             {
-                // computerLabel/getComputerLabel
-                String label = m_apiEnvironment.getLabel();
-                if( label != null )
-                {
-                    return new Object[] { label };
-                }
-                return null;
+                // Get numbers of days since 1970-01-01 (local time)
+                Calendar c = Calendar.getInstance();
+                return getDayForCalendar( c );
             }
-            case 10: // clock
-                synchronized( m_timers )
+            case "ingame":
+                // Get game day
+                synchronized( m_alarms )
                 {
-                    return new Object[] { m_clock * 0.05 };
+                    return m_day;
                 }
-            case 11:
-            {
-                // time
-                Object value = args.length > 0 ? args[0] : null;
-                if( value instanceof Map ) return new Object[] { LuaDateTime.fromTable( (Map<?, ?>) value ) };
+            default:
+                throw new LuaException( "Unsupported operation" );
+        }
+    }
 
-                String param = optString( args, 0, "ingame" );
-                switch( param.toLowerCase( Locale.ROOT ) )
-                {
-                    case "utc":
-                    {
-                        // Get Hour of day (UTC)
-                        Calendar c = Calendar.getInstance( TimeZone.getTimeZone( "UTC" ) );
-                        return new Object[] { getTimeForCalendar( c ) };
-                    }
-                    case "local":
-                    {
-                        // Get Hour of day (local time)
-                        Calendar c = Calendar.getInstance();
-                        return new Object[] { getTimeForCalendar( c ) };
-                    }
-                    case "ingame":
-                        // Get ingame hour
-                        synchronized( m_alarms )
-                        {
-                            return new Object[] { m_time };
-                        }
-                    default:
-                        throw new LuaException( "Unsupported operation" );
-                }
-            }
-            case 12:
+    @LuaFunction
+    public final void cancelTimer( int token )
+    {
+        synchronized( m_timers )
+        {
+            m_timers.remove( token );
+        }
+    }
+
+    @LuaFunction
+    public final void cancelAlarm( int token )
+    {
+        synchronized( m_alarms )
+        {
+            m_alarms.remove( token );
+        }
+    }
+
+    @LuaFunction
+    public final long epoch( IArguments args ) throws LuaException
+    {
+        String param = args.optString( 0, "ingame" );
+        switch( param.toLowerCase( Locale.ROOT ) )
+        {
+            case "utc":
             {
-                // day
-                String param = optString( args, 0, "ingame" );
-                switch( param.toLowerCase( Locale.ROOT ) )
-                {
-                    case "utc":
-                    {
-                        // Get numbers of days since 1970-01-01 (utc)
-                        Calendar c = Calendar.getInstance( TimeZone.getTimeZone( "UTC" ) );
-                        return new Object[] { getDayForCalendar( c ) };
-                    }
-                    case "local":
-                    {
-                        // Get numbers of days since 1970-01-01 (local time)
-                        Calendar c = Calendar.getInstance();
-                        return new Object[] { getDayForCalendar( c ) };
-                    }
-                    case "ingame":
-                        // Get game day
-                        synchronized( m_alarms )
-                        {
-                            return new Object[] { m_day };
-                        }
-                    default:
-                        throw new LuaException( "Unsupported operation" );
-                }
+                // Get utc epoch
+                Calendar c = Calendar.getInstance( TimeZone.getTimeZone( "UTC" ) );
+                return getEpochForCalendar( c );
             }
-            case 13:
+            case "local":
             {
-                // cancelTimer
-                int token = getInt( args, 0 );
-                synchronized( m_timers )
-                {
-                    m_timers.remove( token );
-                }
-                return null;
+                // Get local epoch
+                Calendar c = Calendar.getInstance();
+                return getEpochForCalendar( c );
             }
-            case 14:
-            {
-                // cancelAlarm
-                int token = getInt( args, 0 );
+            case "ingame":
+                // Get in-game epoch
                 synchronized( m_alarms )
                 {
-                    m_alarms.remove( token );
-                }
-                return null;
-            }
-            case 15: // epoch
-            {
-                String param = optString( args, 0, "ingame" );
-                switch( param.toLowerCase( Locale.ROOT ) )
-                {
-                    case "utc":
-                    {
-                        // Get utc epoch
-                        Calendar c = Calendar.getInstance( TimeZone.getTimeZone( "UTC" ) );
-                        return new Object[] { getEpochForCalendar( c ) };
-                    }
-                    case "local":
-                    {
-                        // Get local epoch
-                        Calendar c = Calendar.getInstance();
-                        return new Object[] { getEpochForCalendar( c ) };
-                    }
-                    case "ingame":
-                        // Get in-game epoch
-                        synchronized( m_alarms )
-                        {
-                            return new Object[] { m_day * 86400000 + (int) (m_time * 3600000.0f) };
-                        }
-                    default:
-                        throw new LuaException( "Unsupported operation" );
-                }
-            }
-            case 16: // date
-            {
-                String format = optString( args, 0, "%c" );
-                long time = optLong( args, 1, Instant.now().getEpochSecond() );
-
-                Instant instant = Instant.ofEpochSecond( time );
-                ZonedDateTime date;
-                ZoneOffset offset;
-                if( format.startsWith( "!" ) )
-                {
-                    offset = ZoneOffset.UTC;
-                    date = ZonedDateTime.ofInstant( instant, offset );
-                    format = format.substring( 1 );
-                }
-                else
-                {
-                    ZoneId id = ZoneId.systemDefault();
-                    offset = id.getRules().getOffset( instant );
-                    date = ZonedDateTime.ofInstant( instant, id );
+                    return m_day * 86400000 + (int) (m_time * 3600000.0f);
                 }
+            default:
+                throw new LuaException( "Unsupported operation" );
+        }
+    }
 
-                if( format.equals( "*t" ) ) return new Object[] { LuaDateTime.toTable( date, offset, instant ) };
+    @LuaFunction
+    public final Object date( IArguments args ) throws LuaException
+    {
+        String format = args.optString( 0, "%c" );
+        long time = args.optLong( 1, Instant.now().getEpochSecond() );
 
-                DateTimeFormatterBuilder formatter = new DateTimeFormatterBuilder();
-                LuaDateTime.format( formatter, format, offset );
-                return new Object[] { formatter.toFormatter( Locale.ROOT ).format( date ) };
-            }
-            default:
-                return null;
+        Instant instant = Instant.ofEpochSecond( time );
+        ZonedDateTime date;
+        ZoneOffset offset;
+        if( format.startsWith( "!" ) )
+        {
+            offset = ZoneOffset.UTC;
+            date = ZonedDateTime.ofInstant( instant, offset );
+            format = format.substring( 1 );
+        }
+        else
+        {
+            ZoneId id = ZoneId.systemDefault();
+            offset = id.getRules().getOffset( instant );
+            date = ZonedDateTime.ofInstant( instant, id );
         }
+
+        if( format.equals( "*t" ) ) return LuaDateTime.toTable( date, offset, instant );
+
+        DateTimeFormatterBuilder formatter = new DateTimeFormatterBuilder();
+        LuaDateTime.format( formatter, format, offset );
+        return formatter.toFormatter( Locale.ROOT ).format( date );
     }
 
     // Private methods
@@ -426,14 +406,4 @@ public class OSAPI implements ILuaAPI
     {
         m_apiEnvironment.queueEvent( event, args );
     }
-
-    private Object[] trimArray( Object[] array, int skip )
-    {
-        return Arrays.copyOfRange( array, skip, array.length );
-    }
-
-    private int getComputerID()
-    {
-        return m_apiEnvironment.getComputerID();
-    }
 }
@@ -6,15 +6,13 @@
 package dan200.computercraft.core.apis;
 
 import dan200.computercraft.api.lua.ILuaAPI;
-import dan200.computercraft.api.lua.ILuaContext;
 import dan200.computercraft.api.lua.LuaException;
 import dan200.computercraft.core.computer.ComputerSide;
+import dan200.computercraft.core.lua.AnnotatedLuaObject;
+import dan200.computercraft.core.lua.IArguments;
+import dan200.computercraft.core.lua.LuaFunction;
 
-import javax.annotation.Nonnull;
-
-import static dan200.computercraft.api.lua.ArgumentHelper.*;
-
-public class RedstoneAPI implements ILuaAPI
+public class RedstoneAPI implements ILuaAPI, AnnotatedLuaObject
 {
     private IAPIEnvironment m_environment;
 
@@ -29,94 +27,101 @@ public class RedstoneAPI implements ILuaAPI
         return new String[] { "rs", "redstone" };
     }
 
-    @Nonnull
-    @Override
-    public String[] getMethodNames()
+    @LuaFunction
+    public final Object[] getSides()
     {
-        return new String[] {
-            "getSides",
-            "setOutput",
-            "getOutput",
-            "getInput",
-            "setBundledOutput",
-            "getBundledOutput",
-            "getBundledInput",
-            "testBundledInput",
-            "setAnalogOutput",
-            "setAnalogueOutput",
-            "getAnalogOutput",
-            "getAnalogueOutput",
-            "getAnalogInput",
-            "getAnalogueInput",
-        };
+        return new Object[] { ComputerSide.NAMES };
     }
 
-    @Override
-    public Object[] callMethod( @Nonnull ILuaContext context, int method, @Nonnull Object[] args ) throws LuaException
+    @LuaFunction
+    public final void setOutput( IArguments args ) throws LuaException
+    {
+        ComputerSide side = parseSide( args );
+        boolean output = args.getBoolean( 1 );
+        m_environment.setOutput( side, output ? 15 : 0 );
+    }
+
+    @LuaFunction
+    public final boolean getOutput( String side ) throws LuaException
+    {
+        return m_environment.getOutput( parseSide( side ) ) > 0;
+    }
+
+    @LuaFunction
+    public final boolean getInput( String side ) throws LuaException
+    {
+        return m_environment.getInput( parseSide( side ) ) > 0;
+    }
+
+    @LuaFunction
+    public final void setBundledOutput( IArguments args ) throws LuaException
+    {
+        ComputerSide side = parseSide( args );
+        int output = args.getInt( 1 );
+        m_environment.setBundledOutput( side, output );
+    }
+
+    @LuaFunction
+    public final int getBundledOutput( String side ) throws LuaException
+    {
+        return m_environment.getBundledOutput( parseSide( side ) );
+    }
+
+    @LuaFunction
+    public final int getBundledInput( String side ) throws LuaException
+    {
+        return m_environment.getBundledInput( parseSide( side ) );
+    }
+
+    @LuaFunction
+    public final boolean testBundledInput( IArguments args ) throws LuaException
     {
-        switch( method )
+        ComputerSide side = parseSide( args );
+        int mask = args.getInt( 1 );
+        int input = m_environment.getBundledInput( side );
+        return (input & mask) == mask;
+    }
+
+    @LuaFunction( { "setAnalogOutput", "setAnalogueOutput" } )
+    public final void setAnalogOutput( IArguments args ) throws LuaException
+    {
+        ComputerSide parsed = parseSide( args );
+        int output = args.getInt( 1 );
+        if( output < 0 || output > 15 )
         {
-            case 0: // getSides
-                return new Object[] { ComputerSide.NAMES };
-            case 1:
-            {
-                // setOutput
-                ComputerSide side = parseSide( args );
-                boolean output = getBoolean( args, 1 );
-                m_environment.setOutput( side, output ? 15 : 0 );
-                return null;
-            }
-            case 2: // getOutput
-                return new Object[] { m_environment.getOutput( parseSide( args ) ) > 0 };
-            case 3: // getInput
-                return new Object[] { m_environment.getInput( parseSide( args ) ) > 0 };
-            case 4:
-            {
-                // setBundledOutput
-                ComputerSide side = parseSide( args );
-                int output = getInt( args, 1 );
-                m_environment.setBundledOutput( side, output );
-                return null;
-            }
-            case 5: // getBundledOutput
-                return new Object[] { m_environment.getBundledOutput( parseSide( args ) ) };
-            case 6: // getBundledInput
-                return new Object[] { m_environment.getBundledInput( parseSide( args ) ) };
-            case 7:
-            {
-                // testBundledInput
-                ComputerSide side = parseSide( args );
-                int mask = getInt( args, 1 );
-                int input = m_environment.getBundledInput( side );
-                return new Object[] { (input & mask) == mask };
-            }
-            case 8:
-            case 9:
-            {
-                // setAnalogOutput/setAnalogueOutput
-                ComputerSide side = parseSide( args );
-                int output = getInt( args, 1 );
-                if( output < 0 || output > 15 )
-                {
-                    throw new LuaException( "Expected number in range 0-15" );
-                }
-                m_environment.setOutput( side, output );
-                return null;
-            }
-            case 10:
-            case 11: // getAnalogOutput/getAnalogueOutput
-                return new Object[] { m_environment.getOutput( parseSide( args ) ) };
-            case 12:
-            case 13: // getAnalogInput/getAnalogueInput
-                return new Object[] { m_environment.getInput( parseSide( args ) ) };
-            default:
-                return null;
+            throw new LuaException( "Expected number in range 0-15" );
         }
+        m_environment.setOutput( parsed, output );
+    }
+
+    @LuaFunction( { "getAnalogOutput", "getAnalogueOutput" } )
+    public final int getAnalogOutput( String side ) throws LuaException
+    {
+        return m_environment.getOutput( parseSide( side ) );
+    }
+
+    @LuaFunction( { "getAnalogInput", "getAnalogueInput" } )
+    public final int getAnalogInput( String side ) throws LuaException
+    {
+        return m_environment.getInput( parseSide( side ) );
+    }
+
+    /**
+     * Parse the side from the first argument. This is done before reading any other arguments, so that an invalid side
+     * is always reported as such.
+     *
+     * @param args The arguments to this function.
+     * @return The parsed side.
+     * @throws LuaException If the side is missing or invalid.
+     */
+    private static ComputerSide parseSide( IArguments args ) throws LuaException
+    {
+        return parseSide( args.getString( 0 ) );
     }
 
-    private static ComputerSide parseSide( Object[] args ) throws LuaException
+    private static ComputerSide parseSide( String name ) throws LuaException
     {
-        ComputerSide side = ComputerSide.valueOfInsensitive( getString( args, 0 ) );
+        ComputerSide side = ComputerSide.valueOfInsensitive( name );
         if( side == null ) throw new LuaException( "Invalid side." );
         return side;
     }
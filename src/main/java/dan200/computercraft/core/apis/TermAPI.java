@@ -6,19 +6,19 @@
 package dan200.computercraft.core.apis;
 
 import dan200.computercraft.api.lua.ILuaAPI;
-import dan200.computercraft.api.lua.ILuaContext;
 import dan200.computercraft.api.lua.LuaException;
 import dan200.computercraft.core.computer.IComputerEnvironment;
+import dan200.computercraft.core.lua.AnnotatedLuaObject;
+import dan200.computercraft.core.lua.IArguments;
+import dan200.computercraft.core.lua.LuaFunction;
 import dan200.computercraft.core.terminal.Terminal;
 import dan200.computercraft.shared.util.Colour;
 import dan200.computercraft.shared.util.Palette;
 import org.apache.commons.lang3.ArrayUtils;
 
-import javax.annotation.Nonnull;
+import static dan200.computercraft.api.lua.ArgumentHelper.getInt;
 
-import static dan200.computercraft.api.lua.ArgumentHelper.*;
-
-public class TermAPI implements ILuaAPI
+public class TermAPI implements ILuaAPI, AnnotatedLuaObject
 {
     private final Terminal m_terminal;
     private final IComputerEnvironment m_environment;
@@ -35,43 +35,13 @@ public class TermAPI implements ILuaAPI
         return new String[] { "term" };
     }
 
-    @Nonnull
-    @Override
-    public String[] getMethodNames()
+    public static int parseColour( Object[] args ) throws LuaException
     {
-        return new String[] {
-            "write",
-            "scroll",
-            "setCursorPos",
-            "setCursorBlink",
-            "getCursorPos",
-            "getSize",
-            "clear",
-            "clearLine",
-            "setTextColour",
-            "setTextColor",
-            "setBackgroundColour",
-            "setBackgroundColor",
-            "isColour",
-            "isColor",
-            "getTextColour",
-            "getTextColor",
-            "getBackgroundColour",
-            "getBackgroundColor",
-            "blit",
-            "setPaletteColour",
-            "setPaletteColor",
-            "getPaletteColour",
-            "getPaletteColor",
-            "nativePaletteColour",
-            "nativePaletteColor",
-            "getCursorBlink",
-        };
+        return parseColour( getInt( args, 0 ) );
     }
 
-    public static int parseColour( Object[] args ) throws LuaException
+    public static int parseColour( int colour ) throws LuaException
     {
-        int colour = getInt( args, 0 );
         if( colour <= 0 )
         {
             throw new LuaException( "Colour out of range" );
@@ -98,189 +68,185 @@ public class TermAPI implements ILuaAPI
         }
     }
 
-    @Override
-    public Object[] callMethod( @Nonnull ILuaContext context, int method, @Nonnull Object[] args ) throws LuaException
+    @LuaFunction
+    public final void write( Object value )
     {
-        switch( method )
+        String text = value != null ? value.toString() : "";
+        synchronized( m_terminal )
         {
-            case 0:
-            {
-                // write
-                String text = args.length > 0 && args[0] != null ? args[0].toString() : "";
-                synchronized( m_terminal )
-                {
-                    m_terminal.write( text );
-                    m_terminal.setCursorPos( m_terminal.getCursorX() + text.length(), m_terminal.getCursorY() );
-                }
-                return null;
-            }
-            case 1:
-            {
-                // scroll
-                int y = getInt( args, 0 );
-                synchronized( m_terminal )
-                {
-                    m_terminal.scroll( y );
-                }
-                return null;
-            }
-            case 2:
-            {
-                // setCursorPos
-                int x = getInt( args, 0 ) - 1;
-                int y = getInt( args, 1 ) - 1;
-                synchronized( m_terminal )
-                {
-                    m_terminal.setCursorPos( x, y );
-                }
-                return null;
-            }
-            case 3:
-            {
-                // setCursorBlink
-                boolean b = getBoolean( args, 0 );
-                synchronized( m_terminal )
-                {
-                    m_terminal.setCursorBlink( b );
-                }
-                return null;
-            }
-            case 4:
-            {
-                // getCursorPos
-                int x, y;
-                synchronized( m_terminal )
-                {
-                    x = m_terminal.getCursorX();
-                    y = m_terminal.getCursorY();
-                }
-                return new Object[] { x + 1, y + 1 };
-            }
-            case 5:
-            {
-                // getSize
-                int width, height;
-                synchronized( m_terminal )
-                {
-                    width = m_terminal.getWidth();
-                    height = m_terminal.getHeight();
-                }
-                return new Object[] { width, height };
-            }
-            case 6: // clear
-                synchronized( m_terminal )
-                {
-                    m_terminal.clear();
-                }
-                return null;
-            case 7: // clearLine
-                synchronized( m_terminal )
-                {
-                    m_terminal.clearLine();
-                }
-                return null;
-            case 8:
-            case 9:
-            {
-                // setTextColour/setTextColor
-                int colour = parseColour( args );
-                synchronized( m_terminal )
-                {
-                    m_terminal.setTextColour( colour );
-                }
-                return null;
-            }
-            case 10:
-            case 11:
-            {
-                // setBackgroundColour/setBackgroundColor
-                int colour = parseColour( args );
-                synchronized( m_terminal )
-                {
-                    m_terminal.setBackgroundColour( colour );
-                }
-                return null;
-            }
-            case 12:
-            case 13: // isColour/isColor
-                return new Object[] { m_environment.isColour() };
-            case 14:
-            case 15: // getTextColour/getTextColor
-                return encodeColour( m_terminal.getTextColour() );
-            case 16:
-            case 17: // getBackgroundColour/getBackgroundColor
-                return encodeColour( m_terminal.getBackgroundColour() );
-            case 18:
-            {
-                // blit
-                String text = getString( args, 0 );
-                String textColour = getString( args, 1 );
-                String backgroundColour = getString( args, 2 );
-                if( textColour.length() != text.length() || backgroundColour.length() != text.length() )
-                {
-                    throw new LuaException( "Arguments must be the same length" );
-                }
+            m_terminal.write( text );
+            m_terminal.setCursorPos( m_terminal.getCursorX() + text.length(), m_terminal.getCursorY() );
+        }
+    }
 
-                synchronized( m_terminal )
-                {
-                    m_terminal.blit( text, textColour, backgroundColour );
-                    m_terminal.setCursorPos( m_terminal.getCursorX() + text.length(), m_terminal.getCursorY() );
-                }
-                return null;
-            }
-            case 19:
-            case 20:
-            {
-                // setPaletteColour/setPaletteColor
-                int colour = 15 - parseColour( args );
-                if( args.length == 2 )
-                {
-                    int hex = getInt( args, 1 );
-                    double[] rgb = Palette.decodeRGB8( hex );
-                    setColour( m_terminal, colour, rgb[0], rgb[1], rgb[2] );
-                }
-                else
-                {
-                    double r = getFiniteDouble( args, 1 );
-                    double g = getFiniteDouble( args, 2 );
-                    double b = getFiniteDouble( args, 3 );
-                    setColour( m_terminal, colour, r, g, b );
-                }
-                return null;
-            }
-            case 21:
-            case 22:
-            {
-                // getPaletteColour/getPaletteColor
-                int colour = 15 - parseColour( args );
-                synchronized( m_terminal )
-                {
-                    if( m_terminal.getPalette() != null )
-                    {
-                        return ArrayUtils.toObject( m_terminal.getPalette().getColour( colour ) );
-                    }
-                }
-                return null;
-            }
-            case 23:
-            case 24:
-            {
-                // nativePaletteColour/nativePaletteColor
-                int colour = 15 - parseColour( args );
-                Colour c = Colour.fromInt( colour );
+    @LuaFunction
+    public final void scroll( int y )
+    {
+        synchronized( m_terminal )
+        {
+            m_terminal.scroll( y );
+        }
+    }
 
-                float[] rgb = c.getRGB();
+    @LuaFunction
+    public final void setCursorPos( int x, int y )
+    {
+        synchronized( m_terminal )
+        {
+            m_terminal.setCursorPos( x - 1, y - 1 );
+        }
+    }
 
-                Object[] rgbObj = new Object[rgb.length];
-                for( int i = 0; i < rgbObj.length; ++i ) rgbObj[i] = rgb[i];
-                return rgbObj;
+    @LuaFunction
+    public final void setCursorBlink( boolean blink )
+    {
+        synchronized( m_terminal )
+        {
+            m_terminal.setCursorBlink( blink );
+        }
+    }
+
+    @LuaFunction
+    public final Object[] getCursorPos()
+    {
+        int x, y;
+        synchronized( m_terminal )
+        {
+            x = m_terminal.getCursorX();
+            y = m_terminal.getCursorY();
+        }
+        return new Object[] { x + 1, y + 1 };
+    }
+
+    @LuaFunction
+    public final Object[] getSize()
+    {
+        int width, height;
+        synchronized( m_terminal )
+        {
+            width = m_terminal.getWidth();
+            height = m_terminal.getHeight();
+        }
+        return new Object[] { width, height };
+    }
+
+    @LuaFunction
+    public final void clear()
+    {
+        synchronized( m_terminal )
+        {
+            m_terminal.clear();
+        }
+    }
+
+    @LuaFunction
+    public final void clearLine()
+    {
+        synchronized( m_terminal )
+        {
+            m_terminal.clearLine();
+        }
+    }
+
+    @LuaFunction( { "setTextColour", "setTextColor" } )
+    public final void setTextColour( int colour ) throws LuaException
+    {
+        int parsed = parseColour( colour );
+        synchronized( m_terminal )
+        {
+            m_terminal.setTextColour( parsed );
+        }
+    }
+
+    @LuaFunction( { "setBackgroundColour", "setBackgroundColor" } )
+    public final void setBackgroundColour( int colour ) throws LuaException
+    {
+        int parsed = parseColour( colour );
+        synchronized( m_terminal )
+        {
+            m_terminal.setBackgroundColour( parsed );
+        }
+    }
+
+    @LuaFunction( { "isColour", "isColor" } )
+    public final boolean isColour()
+    {
+        return m_environment.isColour();
+    }
+
+    @LuaFunction( { "getTextColour", "getTextColor" } )
+    public final int getTextColour()
+    {
+        return 1 << m_terminal.getTextColour();
+    }
+
+    @LuaFunction( { "getBackgroundColour", "getBackgroundColor" } )
+    public final int getBackgroundColour()
+    {
+        return 1 << m_terminal.getBackgroundColour();
+    }
+
+    @LuaFunction
+    public final void blit( String text, String textColour, String backgroundColour ) throws LuaException
+    {
+        if( textColour.length() != text.length() || backgroundColour.length() != text.length() )
+        {
+            throw new LuaException( "Arguments must be the same length" );
+        }
+
+        synchronized( m_terminal )
+        {
+            m_terminal.blit( text, textColour, backgroundColour );
+            m_terminal.setCursorPos( m_terminal.getCursorX() + text.length(), m_terminal.getCursorY() );
+        }
+    }
+
+    @LuaFunction( { "setPaletteColour", "setPaletteColor" } )
+    public final void setPaletteColour( IArguments args ) throws LuaException
+    {
+        int colour = 15 - parseColour( args.getInt( 0 ) );
+        if( args.count() == 2 )
+        {
+            double[] rgb = Palette.decodeRGB8( args.getInt( 1 ) );
+            setColour( m_terminal, colour, rgb[0], rgb[1], rgb[2] );
+        }
+        else
+        {
+            double r = args.getFiniteDouble( 1 );
+            double g = args.getFiniteDouble( 2 );
+            double b = args.getFiniteDouble( 3 );
+            setColour( m_terminal, colour, r, g, b );
+        }
+    }
+
+    @LuaFunction( { "getPaletteColour", "getPaletteColor" } )
+    public final Object[] getPaletteColour( int colour ) throws LuaException
+    {
+        int index = 15 - parseColour( colour );
+        synchronized( m_terminal )
+        {
+            if( m_terminal.getPalette() != null )
+            {
+                return ArrayUtils.toObject( m_terminal.getPalette().getColour( index ) );
             }
-            case 25:
-                // getCursorBlink
-                return new Object[] { m_terminal.getCursorBlink() };
-            default:
-                return null;
         }
+        return null;
+    }
+
+    @LuaFunction( { "nativePaletteColour", "nativePaletteColor" } )
+    public final Object[] nativePaletteColour( int colour ) throws LuaException
+    {
+        float[] rgb = Colour.fromInt( 15 - parseColour( colour ) ).getRGB();
+
+        Object[] rgbObj = new Object[rgb.length];
+        for( int i = 0; i < rgbObj.length; ++i ) rgbObj[i] = rgb[i];
+        return rgbObj;
+    }
+
+    @LuaFunction
+    public final boolean getCursorBlink()
+    {
+        return m_terminal.getCursorBlink();
     }
 
     private static int getHighestBit( int group )
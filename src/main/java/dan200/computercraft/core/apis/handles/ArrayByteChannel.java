@@ -5,6 +5,9 @@
  */
 package dan200.computercraft.core.apis.handles;
 
+import dan200.computercraft.core.lua.LuaBytes;
+
+import javax.annotation.Nullable;
 import java.nio.ByteBuffer;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.NonWritableChannelException;
@@ -40,6 +43,28 @@ public class ArrayByteChannel implements SeekableByteChannel
         return remaining;
     }
 
+    /**
+     * Read up to {@code count} bytes, without copying them out of the backing array where possible.
+     *
+     * The backing array is never written to, and so the returned bytes may be handed directly to Lua. Small reads are
+     * still copied (see {@link LuaBytes#of(byte[], int, int)}), so they don't keep the whole array alive.
+     *
+     * @param count The maximum number of bytes to read.
+     * @return The bytes read, or {@code null} if we are at the end of the array.
+     * @throws ClosedChannelException If this channel is closed.
+     */
+    @Nullable
+    LuaBytes readBytes( int count ) throws ClosedChannelException
+    {
+        if( closed ) throw new ClosedChannelException();
+        if( position >= backing.length ) return null;
+
+        int remaining = Math.min( backing.length - position, count );
+        LuaBytes bytes = LuaBytes.of( backing, position, remaining );
+        position += remaining;
+        return bytes;
+    }
+
     @Override
     public int write( ByteBuffer src ) throws ClosedChannelException
     {
@@ -8,6 +8,7 @@ package dan200.computercraft.core.apis.handles;
 import com.google.common.collect.ObjectArrays;
 import dan200.computercraft.api.lua.ILuaContext;
 import dan200.computercraft.api.lua.LuaException;
+import dan200.computercraft.core.lua.LuaBytes;
 
 import javax.annotation.Nonnull;
 import java.io.ByteArrayOutputStream;
@@ -74,13 +75,19 @@ public class BinaryReadableHandle extends HandleGeneric
                             return m_seekable.position() >= m_seekable.size() ? null : new Object[] { "" };
                         }
 
+                        if( m_reader instanceof ArrayByteChannel )
+                        {
+                            LuaBytes bytes = ((ArrayByteChannel) m_reader).readBytes( count );
+                            return bytes == null ? null : new Object[] { bytes };
+                        }
+
                         if( count <= BUFFER_SIZE )
                         {
                             ByteBuffer buffer = ByteBuffer.allocate( count );
 
                             int read = m_reader.read( buffer );
                             if( read < 0 ) return null;
-                            return new Object[] { read < count ? Arrays.copyOf( buffer.array(), read ) : buffer.array() };
+                            return new Object[] { LuaBytes.of( buffer.array(), 0, read ) };
                         }
                         else
                         {
@@ -92,7 +99,7 @@ public class BinaryReadableHandle extends HandleGeneric
                             // If we failed to read "enough" here, let's just abort
                             if( read >= count || read < BUFFER_SIZE )
                             {
-                                return new Object[] { Arrays.copyOf( buffer.array(), read ) };
+                                return new Object[] { LuaBytes.of( buffer.array(), 0, read ) };
                             }
 
                             // Build up an array of ByteBuffers. Hopefully this means we can perform less allocation
@@ -118,7 +125,7 @@ public class BinaryReadableHandle extends HandleGeneric
                                 System.arraycopy( part.array(), 0, bytes, pos, part.position() );
                                 pos += part.position();
                             }
-                            return new Object[] { bytes };
+                            return new Object[] { LuaBytes.of( bytes ) };
                         }
                     }
                     else
@@ -136,25 +143,43 @@ public class BinaryReadableHandle extends HandleGeneric
                 checkOpen();
                 try
                 {
+                    if( m_reader instanceof ArrayByteChannel )
+                    {
+                        LuaBytes bytes = ((ArrayByteChannel) m_reader).readBytes( Integer.MAX_VALUE );
+                        return bytes == null ? null : new Object[] { bytes };
+                    }
+
                     int expected = 32;
                     if( m_seekable != null )
                     {
                         expected = Math.max( expected, (int) (m_seekable.size() - m_seekable.position()) );
                     }
-                    ByteArrayOutputStream stream = new ByteArrayOutputStream( expected );
 
-                    ByteBuffer buf = ByteBuffer.allocate( 8192 );
+                    // Read directly into the array we return. If we know the file's size, this will normally be
+                    // exactly the right size, and so requires no copying at all.
+                    byte[] bytes = new byte[expected];
+                    int total = 0;
                     boolean readAnything = false;
                     while( true )
                     {
-                        buf.clear();
-                        int r = m_reader.read( buf );
+                        if( total == bytes.length )
+                        {
+                            // Check whether there is anything left before growing the array.
+                            single.clear();
+                            if( m_reader.read( single ) <= 0 ) break;
+
+                            readAnything = true;
+                            bytes = Arrays.copyOf( bytes, bytes.length * 2 );
+                            bytes[total++] = single.get( 0 );
+                        }
+
+                        int r = m_reader.read( ByteBuffer.wrap( bytes, total, bytes.length - total ) );
                         if( r == -1 ) break;
 
                         readAnything = true;
-                        stream.write( buf.array(), 0, r );
+                        total += r;
                     }
-                    return readAnything ? new Object[] { stream.toByteArray() } : null;
+                    return readAnything ? new Object[] { LuaBytes.of( bytes, 0, total ) } : null;
                 }
                 catch( IOException e )
                 {
@@ -178,7 +203,7 @@ public class BinaryReadableHandle extends HandleGeneric
                             // Nothing else to read, and we saw no \n. Return the array. If we saw a \r, then add it
                             // back.
                             if( readRc ) stream.write( '\r' );
-                            return readAnything ? new Object[] { stream.toByteArray() } : null;
+                            return readAnything ? new Object[] { LuaBytes.of( stream.toByteArray() ) } : null;
                         }
 
                         readAnything = true;
@@ -191,7 +216,7 @@ public class BinaryReadableHandle extends HandleGeneric
                                 if( readRc ) stream.write( '\r' );
                                 stream.write( chr );
                             }
-                            return new Object[] { stream.toByteArray() };
+                            return new Object[] { LuaBytes.of( stream.toByteArray() ) };
                         }
                         else
                         {
@@ -7,6 +7,7 @@ package dan200.computercraft.core.apis.http.websocket;
 
 import dan200.computercraft.core.apis.http.HTTPRequestException;
 import dan200.computercraft.core.apis.http.NetworkUtils;
+import dan200.computercraft.core.lua.LuaBytes;
 import dan200.computercraft.core.tracking.TrackingField;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ConnectTimeoutException;
@@ -75,7 +76,7 @@ public class WebsocketHandler extends SimpleChannelInboundHandler<Object>
             byte[] converted = NetworkUtils.toBytes( frame.content() );
 
             websocket.environment().addTrackingChange( TrackingField.WEBSOCKET_INCOMING, converted.length );
-            websocket.environment().queueEvent( MESSAGE_EVENT, new Object[] { websocket.address(), converted, true } );
+            websocket.environment().queueEvent( MESSAGE_EVENT, new Object[] { websocket.address(), LuaBytes.of( converted ), true } );
         }
         else if( frame instanceof CloseWebSocketFrame )
         {
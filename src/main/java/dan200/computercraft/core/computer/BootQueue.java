@@ -0,0 +1,163 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2020. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.computer;
+
+import dan200.computercraft.ComputerCraft;
+
+import javax.annotation.Nonnull;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limits how quickly computers may be turned on.
+ *
+ * When a large number of computers are loaded at once (such as when loading a region), they will all attempt to start
+ * in the same tick. Each computer needs to create a file system, APIs and a Lua machine, and so starting them all at
+ * once can stall both the computer threads and the main thread.
+ *
+ * When enabled, computers are instead placed in a queue and started at a rate of at most
+ * {@link ComputerCraft#maxBootsPerSecond}, with at most {@link ComputerCraft#maxConcurrentBoots} starting at any one
+ * time. Computers nearer to players are started first (see {@link IComputerEnvironment#getBootPriority()}).
+ *
+ * @see ComputerExecutor#queueStart()
+ */
+public final class BootQueue
+{
+    private static final Comparator<Entry> ORDER = Comparator
+        .<Entry>comparingDouble( x -> x.priority )
+        .thenComparingLong( x -> x.order );
+
+    /**
+     * Computers waiting to be started.
+     */
+    private static final PriorityQueue<Entry> queue = new PriorityQueue<>( ORDER );
+
+    /**
+     * The number of computers which have been started and are still booting.
+     */
+    private static final AtomicInteger active = new AtomicInteger();
+
+    private static long lastOrder;
+
+    /**
+     * The number of computers we may start right now. This is refilled at a rate of
+     * {@link ComputerCraft#maxBootsPerSecond}.
+     */
+    private static double tokens;
+
+    private static long lastRefill = System.nanoTime();
+
+    private BootQueue() {}
+
+    /**
+     * Determine whether computers should be queued, rather than started immediately.
+     *
+     * @return Whether the boot queue is enabled.
+     */
+    public static boolean isEnabled()
+    {
+        return ComputerCraft.maxBootsPerSecond > 0 || ComputerCraft.maxConcurrentBoots > 0;
+    }
+
+    /**
+     * Get the number of computers waiting to be started.
+     *
+     * @return The length of the boot queue.
+     */
+    public static int size()
+    {
+        synchronized( queue )
+        {
+            return queue.size();
+        }
+    }
+
+    /**
+     * Add a computer to the boot queue.
+     *
+     * You must be holding {@link ComputerExecutor}'s {@code queueLock} when calling this method - it should only
+     * be called from {@code queueStart}.
+     *
+     * @param executor The computer to start.
+     */
+    static void queue( @Nonnull ComputerExecutor executor )
+    {
+        double priority = executor.getComputer().getComputerEnvironment().getBootPriority();
+        synchronized( queue )
+        {
+            queue.add( new Entry( executor, priority, lastOrder++ ) );
+        }
+    }
+
+    /**
+     * Start as many queued computers as our limits allow. This is called at the start of every tick.
+     */
+    static void tick()
+    {
+        int rate = ComputerCraft.maxBootsPerSecond, concurrent = ComputerCraft.maxConcurrentBoots;
+
+        long now = System.nanoTime();
+        if( rate > 0 ) tokens = Math.min( rate, tokens + (now - lastRefill) * rate / (double) TimeUnit.SECONDS.toNanos( 1 ) );
+        lastRefill = now;
+
+        while( true )
+        {
+            Entry entry;
+            synchronized( queue )
+            {
+                if( queue.isEmpty() ) return;
+                if( rate > 0 && tokens < 1 ) return;
+                if( concurrent > 0 && active.get() >= concurrent ) return;
+
+                entry = queue.poll();
+            }
+
+            // Computers may have been turned off or removed while in the queue, in which case we can skip them without
+            // counting them against our limits.
+            if( entry.executor.boot() )
+            {
+                active.incrementAndGet();
+                tokens--;
+            }
+        }
+    }
+
+    /**
+     * Mark a computer started by the boot queue as having finished starting.
+     */
+    static void finished()
+    {
+        active.decrementAndGet();
+    }
+
+    public static void reset()
+    {
+        synchronized( queue )
+        {
+            queue.clear();
+        }
+        active.set( 0 );
+        tokens = 0;
+        lastOrder = 0;
+        lastRefill = System.nanoTime();
+    }
+
+    private static final class Entry
+    {
+        final ComputerExecutor executor;
+        final double priority;
+        final long order;
+
+        Entry( ComputerExecutor executor, double priority, long order )
+        {
+            this.executor = executor;
+            this.priority = priority;
+            this.order = order;
+        }
+    }
+}
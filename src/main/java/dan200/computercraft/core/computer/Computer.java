@@ -13,7 +13,9 @@ import dan200.computercraft.api.peripheral.IWorkMonitor;
 import dan200.computercraft.core.apis.IAPIEnvironment;
 import dan200.computercraft.core.filesystem.FileSystem;
 import dan200.computercraft.core.terminal.Terminal;
+import dan200.computercraft.core.tracking.LuaProfiler;
 
+import javax.annotation.Nullable;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -51,6 +53,8 @@ public class Computer
     private boolean startRequested;
     private int m_ticksSinceStart = -1;
 
+    private volatile LuaProfiler profiler;
+
     public Computer( IComputerEnvironment environment, Terminal terminal, int id )
     {
         m_id = id;
@@ -66,6 +70,11 @@ public class Computer
         return m_environment;
     }
 
+    ComputerExecutor getExecutor()
+    {
+        return executor;
+    }
+
     FileSystem getFileSystem()
     {
         return executor.getFileSystem();
@@ -91,6 +100,32 @@ public class Computer
         return executor.isOn();
     }
 
+    /**
+     * Whether this computer has used up its CPU quota, and is waiting for it to be refilled.
+     *
+     * @return Whether this computer is being throttled.
+     */
+    public boolean isThrottled()
+    {
+        return executor.isParked();
+    }
+
+    /**
+     * Get the profiler attached to this computer.
+     *
+     * @return The current profiler, or {@code null} if this computer has never been profiled.
+     */
+    @Nullable
+    public LuaProfiler getProfiler()
+    {
+        return profiler;
+    }
+
+    public void setProfiler( @Nullable LuaProfiler profiler )
+    {
+        this.profiler = profiler;
+    }
+
     public void turnOn()
     {
         startRequested = true;
@@ -116,6 +151,42 @@ public class Computer
         executor.queueEvent( event, args );
     }
 
+    /**
+     * Re-read this computer's scheduling group from its environment. This should be called whenever the group may have
+     * changed, such as when the computer moves to another world. The group is also refreshed whenever the computer is
+     * turned on.
+     *
+     * @see IComputerEnvironment#getSchedulingGroup()
+     */
+    public void updateSchedulingGroup()
+    {
+        executor.updateSchedulingGroup();
+    }
+
+    /**
+     * Discard any spare Lua machines prepared for rebooting computers, as they were created with an old config.
+     *
+     * @see dan200.computercraft.ComputerCraft#prewarmMachines
+     */
+    public static void invalidateSpareMachines()
+    {
+        ComputerExecutor.invalidateSpareMachines();
+    }
+
+    /**
+     * Queue an event used to wake up a waiting Lua method, such as after a main thread task has completed.
+     *
+     * Unlike {@link #queueEvent(String, Object[])}, this is not subject to the event queue's limit, and so may not be
+     * dropped when the computer is busy.
+     *
+     * @param event The event's name
+     * @param args  The event's arguments
+     */
+    public void queueWakeup( String event, Object[] args )
+    {
+        executor.queueEvent( event, args, true );
+    }
+
     /**
      * Queue a task to be run on the main thread, using {@link MainThread}.
      *
@@ -176,6 +247,7 @@ public class Computer
             if( !executor.isOn() )
             {
                 m_ticksSinceStart = 0;
+                executor.updateSchedulingGroup();
                 executor.queueStart();
             }
         }
@@ -16,18 +16,23 @@ import dan200.computercraft.core.filesystem.FileSystemException;
 import dan200.computercraft.core.lua.CobaltLuaMachine;
 import dan200.computercraft.core.lua.ILuaMachine;
 import dan200.computercraft.core.lua.MachineResult;
+import dan200.computercraft.core.lua.PrototypeCache;
 import dan200.computercraft.core.terminal.Terminal;
 import dan200.computercraft.core.tracking.Tracking;
+import dan200.computercraft.core.tracking.TrackingField;
 import dan200.computercraft.shared.util.Colour;
 import dan200.computercraft.shared.util.IoUtil;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
-import java.util.Queue;
+import java.util.Objects;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -55,16 +60,58 @@ final class ComputerExecutor
 {
     private static final int QUEUE_LIMIT = 256;
 
+    /**
+     * Used to measure how much memory is allocated while running a computer, if supported by this JVM.
+     */
+    @Nullable
+    private static final com.sun.management.ThreadMXBean THREAD_BEAN = getThreadBean();
+
     private static IMount romMount;
     private static final Object romMountLock = new Object();
 
+    /**
+     * Incremented whenever the config is reloaded. Spare machines built under an older config are thrown away rather
+     * than used, as the Lua machine reads several config options when it is created.
+     *
+     * @see #spareGeneration
+     */
+    private static volatile int machineGeneration;
+
     private final Computer computer;
     private final List<ILuaAPI> apis = new ArrayList<>();
     final TimeoutState timeout = new TimeoutState();
 
     private FileSystem fileSystem;
 
-    private ILuaMachine machine;
+    private volatile ILuaMachine machine;
+
+    /**
+     * A fresh Lua machine (with APIs added and the bios loaded, but not yet started) to use the next time this computer
+     * is turned on. This is only created for computers which reboot, and only accessed from the computer thread.
+     *
+     * @see ComputerCraft#prewarmMachines
+     * @see #createLuaMachine(boolean)
+     */
+    private ILuaMachine spareMachine;
+
+    /**
+     * The {@link #machineGeneration} the {@link #spareMachine} was created in.
+     */
+    private int spareGeneration;
+
+    /**
+     * Whether we should create a {@link #spareMachine} once the computer has no other work to do. This is done as a
+     * separate task, so that building it does not delay booting or count against the boot task's timeout.
+     *
+     * @see #queueLock
+     * @see #work()
+     */
+    private volatile boolean wantSpareMachine = false;
+
+    /**
+     * Whether this computer has been rebooted, and so will probably be rebooted again.
+     */
+    private boolean rebooted = false;
 
     /**
      * Whether the computer is currently on. This is set to false when a shutdown starts, or when turning on completes
@@ -102,6 +149,48 @@ final class ComputerExecutor
      */
     volatile boolean onComputerQueue = false;
 
+    /**
+     * Whether this computer has used up its CPU quota, and so is waiting for it to be refilled before it may run again.
+     * While parked, the computer is not added to the {@link ComputerThread} queue, though commands (such as shutting
+     * down) may still be run.
+     *
+     * @see #queueLock
+     * @see #afterWork()
+     * @see #unpark()
+     */
+    private volatile boolean parked = false;
+
+    /**
+     * When the computer should be unparked, relative to {@link System#nanoTime()}. This is only meaningful after
+     * {@link #afterWork()} has parked the computer.
+     */
+    long parkedUntil;
+
+    /**
+     * The remaining CPU time this computer may use, in nanoseconds. This forms a token bucket which is refilled at a
+     * rate of {@link ComputerCraft#cpuQuotaTime} every {@link ComputerCraft#cpuQuotaPeriod}.
+     *
+     * This is only accessed from {@link #afterWork()}.
+     */
+    private long quotaTokens;
+
+    /**
+     * The last time {@link #quotaTokens} was refilled, or 0 if the quota has not been used yet.
+     */
+    private long quotaRefill;
+
+    /**
+     * The number of bytes the runner thread had allocated when {@link #beforeWork()} was called, or -1 if we are not
+     * measuring allocations.
+     */
+    private long allocatedStart = -1;
+
+    /**
+     * The id of the runner thread which called {@link #beforeWork()}. {@link #afterWork()} may be called from the
+     * monitor thread when a computer is killed, so we must not use the current thread there.
+     */
+    private long allocatedThread;
+
     /**
      * The amount of time this computer has used on a theoretical machine which shares work evenly amongst computers.
      *
@@ -116,6 +205,24 @@ final class ComputerExecutor
      */
     long vRuntimeStart;
 
+    /**
+     * The group this executor is scheduled as part of, or {@code null} if it is scheduled alone. This is updated each
+     * time the executor is added to the {@link ComputerThread}.
+     *
+     * @see ExecutorGroup
+     */
+    ExecutorGroup group;
+
+    /**
+     * The group this executor should be scheduled as part of when next added to the {@link ComputerThread}.
+     *
+     * This is resolved from the {@link IComputerEnvironment} when the computer is turned on or changes world, rather
+     * than every time we are queued.
+     *
+     * @see #updateSchedulingGroup()
+     */
+    volatile ExecutorGroup schedulingGroup;
+
     /**
      * The command that {@link #work()} should execute on the computer thread.
      *
@@ -132,7 +239,17 @@ final class ComputerExecutor
      *
      * Note, this should be empty if this computer is off - it is cleared on shutdown and when turning on again.
      */
-    private final Queue<Event> eventQueue = new ArrayDeque<>( 4 );
+    private final Deque<Event> eventQueue = new ArrayDeque<>( 4 );
+
+    /**
+     * Whether this computer is waiting in the {@link BootQueue} to be started.
+     */
+    private boolean bootQueued = false;
+
+    /**
+     * Whether this computer was started by the {@link BootQueue}, and so should notify it once starting has finished.
+     */
+    private volatile boolean booting = false;
 
     /**
      * Whether we interrupted an event and so should resume it instead of executing another task.
@@ -140,7 +257,7 @@ final class ComputerExecutor
      * @see #work()
      * @see #resumeMachine(String, Object[])
      */
-    private boolean interruptedEvent = false;
+    private volatile boolean interruptedEvent = false;
 
     /**
      * Whether this executor has been closed, and will no longer accept any incoming commands or events.
@@ -208,15 +325,47 @@ final class ComputerExecutor
     /**
      * Schedule this computer to be started if not already on.
      */
+    void updateSchedulingGroup()
+    {
+        schedulingGroup = ExecutorGroup.get( computer.getComputerEnvironment().getSchedulingGroup() );
+    }
+
     void queueStart()
     {
         synchronized( queueLock )
         {
             // We should only schedule a start if we're not currently on and there's turn on.
-            if( closed || isOn || command != null ) return;
+            if( closed || isOn || command != null || bootQueued ) return;
+
+            // If we're limiting how many computers can start at once, then wait our turn.
+            if( BootQueue.isEnabled() )
+            {
+                bootQueued = true;
+                BootQueue.queue( this );
+                return;
+            }
+
+            command = StateCommand.TURN_ON;
+            enqueue();
+        }
+    }
+
+    /**
+     * Start this computer, once it has reached the front of the {@link BootQueue}.
+     *
+     * @return Whether the computer is now starting. This will be false if it was turned on or closed while waiting.
+     */
+    boolean boot()
+    {
+        synchronized( queueLock )
+        {
+            bootQueued = false;
+            if( closed || isOn || command != null ) return false;
 
+            booting = true;
             command = StateCommand.TURN_ON;
             enqueue();
+            return true;
         }
     }
 
@@ -273,6 +422,19 @@ final class ComputerExecutor
      * @param args  The event's arguments
      */
     void queueEvent( @Nonnull String event, @Nullable Object[] args )
+    {
+        queueEvent( event, args, false );
+    }
+
+    /**
+     * Queue an event if the computer is on.
+     *
+     * @param event  The event's name
+     * @param args   The event's arguments
+     * @param wakeup Whether this event is used to resume a waiting method. These are not subject to
+     *               {@link #QUEUE_LIMIT}, as the waiting method would otherwise never complete.
+     */
+    void queueEvent( @Nonnull String event, @Nullable Object[] args, boolean wakeup )
     {
         // Events should be skipped if we're not on.
         if( !isOn ) return;
@@ -281,14 +443,57 @@ final class ComputerExecutor
         {
             // And if we've got some command in the pipeline, then don't queue events - they'll
             // probably be disposed of anyway.
+            if( closed || command != null ) return;
+
+            // If the machine is waiting for a specific event and has nothing else to process, then it will discard
+            // this event anyway. We skip queuing it, so we don't need to schedule the computer at all.
+            if( eventQueue.isEmpty() && !acceptsEvent( event ) ) return;
+
+            // If this event supersedes the last one in the queue, then just replace that instead.
+            Event last;
+            if( ComputerCraft.coalesceEvents && (last = eventQueue.peekLast()) != null && last.canCoalesce( event, args ) )
+            {
+                eventQueue.pollLast();
+                eventQueue.offer( new Event( event, args ) );
+                Tracking.addValue( computer, TrackingField.EVENTS_COALESCED, 1 );
+                return;
+            }
+
             // We also limit the number of events which can be queued.
-            if( closed || command != null || eventQueue.size() >= QUEUE_LIMIT ) return;
+            if( !wakeup && eventQueue.size() >= QUEUE_LIMIT )
+            {
+                Tracking.addValue( computer, TrackingField.EVENTS_DROPPED, 1 );
+                return;
+            }
 
             eventQueue.offer( new Event( event, args ) );
             enqueue();
         }
     }
 
+    /**
+     * Determine whether the Lua machine would accept this event.
+     *
+     * @param event The event's name
+     * @return Whether this event matches the machine's current event filter.
+     * @see ILuaMachine#getEventFilter()
+     */
+    private boolean acceptsEvent( @Nonnull String event )
+    {
+        // If we're currently running (or have paused) the machine, then the filter is that of the event being
+        // processed, and will probably change once it yields. executingThread is not guarded by queueLock: the
+        // runner sets it (with a CAS) before calling work(), which then polls the event queue under queueLock. As we
+        // hold queueLock here, an event which has been taken off the queue but not yet run is always seen as executing.
+        // The thread is only cleared after work() returns, by which point the filter reflects the machine's last yield.
+        if( executingThread.get() != null || interruptedEvent ) return true;
+
+        ILuaMachine machine = this.machine;
+        if( machine == null ) return true;
+
+        String filter = machine.getEventFilter();
+        return filter == null || filter.equals( event ) || event.equals( "terminate" );
+    }
+
     /**
      * Add this executor to the {@link ComputerThread} if not already there.
      */
@@ -296,7 +501,7 @@ final class ComputerExecutor
     {
         synchronized( queueLock )
         {
-            if( !onComputerQueue ) ComputerThread.queue( this );
+            if( !onComputerQueue && (!parked || command != null) ) ComputerThread.queue( this );
         }
     }
 
@@ -333,7 +538,9 @@ final class ComputerExecutor
         synchronized( romMountLock )
         {
             if( romMount != null ) return romMount;
-            return romMount = computer.getComputerEnvironment().createResourceMount( "computercraft", "lua/rom" );
+            IMount mount = computer.getComputerEnvironment().createResourceMount( "computercraft", "lua/rom" );
+            if( mount != null ) PrototypeCache.INSTANCE.addSources( mount );
+            return romMount = mount;
         }
     }
 
@@ -376,8 +583,23 @@ final class ComputerExecutor
         }
     }
 
-    private ILuaMachine createLuaMachine()
+    /**
+     * Create a new Lua machine, with all APIs added and the bios loaded.
+     *
+     * @param report Whether to display any errors on the terminal. This is false when creating a spare machine.
+     * @return The new machine, or {@code null} if it could not be created.
+     */
+    private ILuaMachine createLuaMachine( boolean report )
     {
+        // Reuse our spare machine if we have one, and it was created with the current config.
+        ILuaMachine spare = spareMachine;
+        if( report && spare != null )
+        {
+            spareMachine = null;
+            if( spareGeneration == machineGeneration ) return spare;
+            spare.close();
+        }
+
         // Load the bios resource
         InputStream biosStream = null;
         try
@@ -390,7 +612,7 @@ final class ComputerExecutor
 
         if( biosStream == null )
         {
-            displayFailure( "Error loading bios.lua", null );
+            if( report ) displayFailure( "Error loading bios.lua", null );
             return null;
         }
 
@@ -407,13 +629,27 @@ final class ComputerExecutor
         if( result.isError() )
         {
             machine.close();
-            displayFailure( "Error loading bios.lua", result.getMessage() );
+            if( report ) displayFailure( "Error loading bios.lua", result.getMessage() );
             return null;
         }
 
         return machine;
     }
 
+    /**
+     * Discard the spare Lua machine, if present.
+     */
+    private void discardSpareMachine()
+    {
+        wantSpareMachine = false;
+
+        ILuaMachine spare = spareMachine;
+        if( spare == null ) return;
+
+        spareMachine = null;
+        spare.close();
+    }
+
     private void turnOn() throws InterruptedException
     {
         isOnLock.lockInterruptibly();
@@ -438,7 +674,7 @@ final class ComputerExecutor
             for( ILuaAPI api : apis ) api.startup();
 
             // Init lua
-            if( (machine = createLuaMachine()) == null )
+            if( (machine = createLuaMachine( true )) == null )
             {
                 shutdown();
                 return;
@@ -455,13 +691,47 @@ final class ComputerExecutor
 
         // Now actually start the computer, now that everything is set up.
         resumeMachine( null, null );
+
+        // If this computer is being rebooted repeatedly, prepare a machine for the next boot once it is idle, rather
+        // than making it wait when rebooting.
+        if( rebooted && ComputerCraft.prewarmMachines && isOn && spareMachine == null ) wantSpareMachine = true;
+    }
+
+    /**
+     * Create the {@link #spareMachine}, if still required.
+     */
+    private void createSpareMachine()
+    {
+        wantSpareMachine = false;
+        if( !isOn || spareMachine != null || !ComputerCraft.prewarmMachines ) return;
+
+        int generation = machineGeneration;
+        spareMachine = createLuaMachine( false );
+        spareGeneration = generation;
     }
 
     private void shutdown() throws InterruptedException
+    {
+        shutdown( false );
+    }
+
+    /**
+     * Shut down the computer, closing the Lua machine and unmounting the file system.
+     *
+     * @param reboot Whether the computer is about to be turned on again. If not, any spare machine is discarded.
+     * @throws InterruptedException If we could not acquire the {@link #isOnLock}.
+     */
+    private void shutdown( boolean reboot ) throws InterruptedException
     {
         isOnLock.lockInterruptibly();
         try
         {
+            if( !reboot )
+            {
+                rebooted = false;
+                discardSpareMachine();
+            }
+
             isOn = false;
             interruptedEvent = false;
             synchronized( queueLock )
@@ -502,6 +772,11 @@ final class ComputerExecutor
     {
         vRuntimeStart = System.nanoTime();
         timeout.startTimer();
+
+        allocatedThread = Thread.currentThread().getId();
+        allocatedStart = THREAD_BEAN != null && Tracking.isTracking()
+            ? THREAD_BEAN.getThreadAllocatedBytes( allocatedThread )
+            : -1;
     }
 
     /**
@@ -520,17 +795,87 @@ final class ComputerExecutor
             timeout.stopTimer();
         }
 
-        Tracking.addTaskTiming( getComputer(), timeout.nanoCurrent() );
+        long time = timeout.nanoCurrent();
+        Tracking.addTaskTiming( getComputer(), time );
 
-        if( interruptedEvent ) return true;
+        if( allocatedStart >= 0 )
+        {
+            // This returns -1 if the runner has since died (for instance, after being stopped).
+            long allocatedEnd = THREAD_BEAN.getThreadAllocatedBytes( allocatedThread );
+            long allocated = allocatedEnd - allocatedStart;
+            if( allocatedEnd >= 0 && allocated > 0 ) Tracking.addValue( computer, TrackingField.ALLOCATED, allocated );
+            allocatedStart = -1;
+        }
+
+        boolean overQuota = consumeQuota( time );
 
         synchronized( queueLock )
         {
-            if( eventQueue.isEmpty() && command == null ) return onComputerQueue = false;
+            if( !interruptedEvent && eventQueue.isEmpty() && command == null && !wantSpareMachine )
+            {
+                return onComputerQueue = false;
+            }
+
+            // We've more work to do, but have used up our CPU quota. Park until we've got some time back - the
+            // ComputerThread will unpark us once that time has passed.
+            if( overQuota && command == null )
+            {
+                parked = true;
+                parkedUntil = System.nanoTime() + (long) (-quotaTokens * ((double) ComputerCraft.cpuQuotaPeriod / ComputerCraft.cpuQuotaTime));
+                Tracking.addValue( computer, TrackingField.THROTTLED, 1 );
+                return onComputerQueue = false;
+            }
+
             return true;
         }
     }
 
+    /**
+     * Refill this computer's CPU quota, and then consume some time from it.
+     *
+     * @param time The time this computer has just spent executing.
+     * @return Whether the computer has exceeded its quota.
+     * @see ComputerCraft#cpuQuotaTime
+     */
+    private boolean consumeQuota( long time )
+    {
+        long quota = ComputerCraft.cpuQuotaTime, period = ComputerCraft.cpuQuotaPeriod;
+        if( quota <= 0 ) return false;
+
+        long now = System.nanoTime();
+        if( quotaRefill == 0 )
+        {
+            quotaTokens = quota;
+        }
+        else
+        {
+            quotaTokens = Math.min( quota, quotaTokens + (long) ((now - quotaRefill) * ((double) quota / period)) );
+        }
+        quotaRefill = now;
+
+        quotaTokens -= time;
+        return quotaTokens < 0;
+    }
+
+    /**
+     * Unpark this computer once it has regained some of its CPU quota, queuing it if it has any work.
+     */
+    void unpark()
+    {
+        synchronized( queueLock )
+        {
+            // We may have been parked again since this was scheduled, in which case wait for the later deadline.
+            if( !parked || System.nanoTime() - parkedUntil < 0 ) return;
+            parked = false;
+            if( interruptedEvent || !eventQueue.isEmpty() || command != null || wantSpareMachine ) enqueue();
+        }
+    }
+
+    boolean isParked()
+    {
+        return parked;
+    }
+
     /**
      * The main worker function, called by {@link ComputerThread}.
      *
@@ -576,39 +921,61 @@ final class ComputerExecutor
 
         if( command != null )
         {
-            switch( command )
+            try
             {
-                case TURN_ON:
-                    if( isOn ) return;
-                    turnOn();
-                    break;
-
-                case SHUTDOWN:
-
-                    if( !isOn ) return;
-                    computer.getTerminal().reset();
-                    shutdown();
-                    break;
-
-                case REBOOT:
-                    if( !isOn ) return;
-                    computer.getTerminal().reset();
-                    shutdown();
-
-                    computer.turnOn();
-                    break;
-
-                case ABORT:
-                    if( !isOn ) return;
-                    displayFailure( "Error running computer", TimeoutState.ABORT_MESSAGE );
-                    shutdown();
-                    break;
+                runCommand( command );
+            }
+            finally
+            {
+                if( booting )
+                {
+                    booting = false;
+                    BootQueue.finished();
+                }
             }
         }
         else if( event != null )
         {
             resumeMachine( event.name, event.args );
         }
+        else if( wantSpareMachine )
+        {
+            // We've nothing else to do, so now is a good time to prepare a machine for the next reboot.
+            createSpareMachine();
+        }
+    }
+
+    private void runCommand( StateCommand command ) throws InterruptedException
+    {
+        switch( command )
+        {
+            case TURN_ON:
+                if( isOn ) return;
+                turnOn();
+                break;
+
+            case SHUTDOWN:
+
+                if( !isOn ) return;
+                computer.getTerminal().reset();
+                shutdown();
+                break;
+
+            case REBOOT:
+                if( !isOn ) return;
+                computer.getTerminal().reset();
+                shutdown( true );
+                rebooted = true;
+
+                computer.turnOn();
+                break;
+
+            case ABORT:
+                if( !isOn ) return;
+                displayFailure( "Error running computer", TimeoutState.ABORT_MESSAGE );
+                shutdown();
+                break;
+        }
     }
 
     private void displayFailure( String message, String extra )
@@ -653,6 +1020,32 @@ final class ComputerExecutor
         ABORT,
     }
 
+    /**
+     * Mark all spare machines as out of date, so they are rebuilt with the current config.
+     */
+    static void invalidateSpareMachines()
+    {
+        machineGeneration++;
+    }
+
+    @Nullable
+    private static com.sun.management.ThreadMXBean getThreadBean()
+    {
+        try
+        {
+            ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if( !(bean instanceof com.sun.management.ThreadMXBean) ) return null;
+
+            com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+            return sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled() ? sunBean : null;
+        }
+        catch( LinkageError | RuntimeException e )
+        {
+            // com.sun.management may not be available on every JVM.
+            return null;
+        }
+    }
+
     private static final class Event
     {
         final String name;
@@ -663,5 +1056,32 @@ final class ComputerExecutor
             this.name = name;
             this.args = args;
         }
+
+        /**
+         * Determine whether this event can be replaced by a later one, without any loss of information.
+         *
+         * This is only the case for events which describe the current state of something (such as the mouse's
+         * position, or a redstone change), rather than a change to it (such as a key press or scroll).
+         *
+         * @param name The later event's name
+         * @param args The later event's arguments
+         * @return Whether the later event can replace this one.
+         */
+        boolean canCoalesce( String name, Object[] args )
+        {
+            if( !this.name.equals( name ) ) return false;
+            switch( name )
+            {
+                case "redstone":
+                case "term_resize":
+                    return true;
+                case "mouse_drag": // Same mouse button
+                case "monitor_resize": // Same monitor
+                    return this.args != null && args != null && this.args.length > 0 && args.length > 0
+                        && Objects.equals( this.args[0], args[0] );
+                default:
+                    return false;
+            }
+        }
     }
 }
@@ -10,23 +10,31 @@ import dan200.computercraft.shared.util.ThreadUtils;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.TreeSet;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.LockSupport;
 import java.util.concurrent.locks.ReentrantLock;
 
 import static dan200.computercraft.core.computer.TimeoutState.ABORT_TIMEOUT;
-import static dan200.computercraft.core.computer.TimeoutState.TIMEOUT;
 
 /**
  * Responsible for running all tasks from a {@link Computer}.
  *
  * This is split into two components: the {@link TaskRunner}s, which pull an executor from the queue and execute it, and
- * a single {@link Monitor} which observes all runners and kills them if they have not been terminated by
- * {@link TimeoutState#isSoftAborted()}.
+ * a single {@link Monitor} which kills tasks if they have not been terminated by {@link TimeoutState#isSoftAborted()}.
+ * Rather than periodically polling every runner, each runner arms a {@link Deadline} when it starts a task and disarms
+ * it once the task finishes. The monitor sleeps until the earliest deadline expires, and so does no work while tasks
+ * are well-behaved or nothing is running.
  *
  * Computers are executed using a priority system, with those who have spent less time executing having a higher
  * priority than those hogging the thread. This, combined with {@link TimeoutState#isPaused()} means we can reduce the
@@ -43,18 +51,22 @@ import static dan200.computercraft.core.computer.TimeoutState.TIMEOUT;
  * In reality, it's unlikely that more than a few computers are waiting to execute at once, so this will not have much
  * effect unless you have a computer hogging execution time. However, it is pretty effective in those situations.
  *
+ * By default, all runners share a single {@link RunQueue}. When {@link ComputerCraft#workStealing} is enabled, each
+ * runner instead owns its own queue, with its own minimum virtual runtime. Runners which have exhausted their own queue
+ * will take the executor with the lowest virtual runtime from the busiest of their peers. This avoids every runner
+ * contending on a single lock when running large numbers of computers on many threads.
+ *
+ * Computers may also be placed into an {@link ExecutorGroup}, in which case the group as a whole receives a fair share
+ * of time, which is then split between its computers.
+ *
+ * The number of runners may be changed while running (see {@link #updateThreadCount()}), and optionally scaled with
+ * the number of queued computers (see {@link #autoScale()}).
+ *
  * @see TimeoutState For how hard timeouts are handled.
  * @see ComputerExecutor For how computers actually do execution.
  */
 public final class ComputerThread
 {
-    /**
-     * How often the computer thread monitor should run, in milliseconds.
-     *
-     * @see Monitor
-     */
-    private static final int MONITOR_WAKEUP = 100;
-
     /**
      * The target latency between executing two tasks on a single machine.
      *
@@ -76,6 +88,34 @@ public final class ComputerThread
      */
     private static final long LATENCY_MAX_TASKS = DEFAULT_LATENCY / DEFAULT_MIN_PERIOD;
 
+    /**
+     * How long an idle runner will wait for work before attempting to steal from other runners' queues, when using work
+     * stealing.
+     *
+     * Runners will normally be woken when work is added to their queue. However, executors may also be queued on a
+     * runner which is busy, and so we periodically poll other queues too.
+     */
+    private static final long STEAL_WAKEUP = TimeUnit.MILLISECONDS.toNanos( 20 );
+
+    /**
+     * The minimum time between two adjustments of the number of runners, when auto-scaling is enabled.
+     *
+     * @see ComputerCraft#maxComputerThreads
+     * @see #autoScale()
+     */
+    private static final long AUTO_SCALE_INTERVAL = TimeUnit.SECONDS.toNanos( 1 );
+
+    /**
+     * Orders executors by their {@link ComputerExecutor#virtualRuntime}.
+     */
+    private static final Comparator<ComputerExecutor> RUNTIME_ORDER = ( a, b ) -> {
+        if( a == b ) return 0; // Should never happen, but let's be consistent here
+
+        long at = a.virtualRuntime, bt = b.virtualRuntime;
+        if( at == bt ) return Integer.compare( a.hashCode(), b.hashCode() );
+        return at < bt ? -1 : 1;
+    };
+
     /**
      * Lock used for modifications to the array of current threads.
      */
@@ -96,28 +136,40 @@ public final class ComputerThread
      */
     private static TaskRunner[] runners;
 
-    private static long latency;
-    private static long minPeriod;
+    private static volatile long latency;
+    private static volatile long minPeriod;
 
-    private static final ReentrantLock computerLock = new ReentrantLock();
+    /**
+     * Whether each runner has its own queue, rather than sharing a single one.
+     *
+     * @see ComputerCraft#workStealing
+     */
+    private static boolean workStealing;
 
-    private static final Condition hasWork = computerLock.newCondition();
+    /**
+     * The queues which runners pull work from. This contains a single shared queue, or one queue per runner when
+     * {@link #workStealing} is enabled.
+     */
+    private static volatile RunQueue[] queues = new RunQueue[] { new RunQueue() };
 
     /**
-     * Active queues to execute.
+     * The total number of executors waiting on all {@link #queues}.
      */
-    private static final TreeSet<ComputerExecutor> computerQueue = new TreeSet<>( ( a, b ) -> {
-        if( a == b ) return 0; // Should never happen, but let's be consistent here
+    private static final AtomicInteger queuedCount = new AtomicInteger();
 
-        long at = a.virtualRuntime, bt = b.virtualRuntime;
-        if( at == bt ) return Integer.compare( a.hashCode(), b.hashCode() );
-        return at < bt ? -1 : 1;
-    } );
+    /**
+     * The last time we considered resizing the runner pool.
+     *
+     * @see #autoScale()
+     */
+    private static final AtomicLong lastAutoScale = new AtomicLong( System.nanoTime() );
 
     /**
-     * The minimum {@link ComputerExecutor#virtualRuntime} time on the tree.
+     * The deadlines of all currently running tasks.
+     *
+     * @see Monitor
      */
-    private static long minimumVirtualRuntime = 0;
+    private static final DelayQueue<Deadline> deadlines = new DelayQueue<>();
 
     private static final ThreadFactory monitorFactory = ThreadUtils.factory( "Computer-Monitor" );
     private static final ThreadFactory runnerFactory = ThreadUtils.factory( "Computer-Runner" );
@@ -135,14 +187,19 @@ public final class ComputerThread
 
             if( runners == null )
             {
-                // TODO: Change the runners length on config reloads
                 runners = new TaskRunner[ComputerCraft.computer_threads];
+                updateLatency();
 
-                // latency and minPeriod are scaled by 1 + floor(log2(threads)). We can afford to execute tasks for
-                // longer when executing on more than one thread.
-                long factor = 64 - Long.numberOfLeadingZeros( runners.length );
-                latency = DEFAULT_LATENCY * factor;
-                minPeriod = DEFAULT_MIN_PERIOD * factor;
+                workStealing = ComputerCraft.workStealing;
+                if( workStealing )
+                {
+                    // Move anything queued before we started onto the new queues.
+                    RunQueue[] oldQueues = queues;
+                    RunQueue[] newQueues = new RunQueue[runners.length];
+                    for( int i = 0; i < newQueues.length; i++ ) newQueues[i] = new RunQueue();
+                    queues = newQueues;
+                    for( RunQueue queue : oldQueues ) queue.drainTo( newQueues );
+                }
             }
 
             for( int i = 0; i < runners.length; i++ )
@@ -153,7 +210,7 @@ public final class ComputerThread
                     // Mark the old runner as dead, just in case.
                     if( runner != null ) runner.running = false;
                     // And start a new runner
-                    runnerFactory.newThread( runners[i] = new TaskRunner() ).start();
+                    startRunner( i );
                 }
             }
 
@@ -181,17 +238,175 @@ public final class ComputerThread
             }
         }
 
-        computerLock.lock();
-        try
+        for( RunQueue queue : queues ) queue.clear();
+    }
+
+    /**
+     * Update the number of runners to match {@link ComputerCraft#computer_threads}.
+     *
+     * This should be called when the config is reloaded. It has no effect if the computer thread has not been
+     * started yet.
+     */
+    public static void updateThreadCount()
+    {
+        synchronized( threadLock )
         {
-            computerQueue.clear();
+            if( runners == null ) return;
+
+            int count = ComputerCraft.computer_threads;
+            if( ComputerCraft.maxComputerThreads > count )
+            {
+                // Keep any runners which we've scaled up to, so long as they're still within the limit.
+                count = Math.min( Math.max( count, runners.length ), ComputerCraft.maxComputerThreads );
+            }
+
+            resize( count );
         }
-        finally
+    }
+
+    /**
+     * Grow or shrink the number of runners.
+     *
+     * New runners are started immediately. Retired runners are allowed to finish their current task, and any work on
+     * their queues is moved onto the remaining ones.
+     *
+     * You must be holding {@link #threadLock} when calling this method.
+     *
+     * @param count The new number of runners.
+     */
+    private static void resize( int count )
+    {
+        TaskRunner[] oldRunners = runners;
+        if( count < 1 || oldRunners == null || count == oldRunners.length ) return;
+
+        ComputerCraft.log.info( "Changing number of computer threads from {} to {}", oldRunners.length, count );
+
+        runners = Arrays.copyOf( oldRunners, count );
+        updateLatency();
+
+        if( count > oldRunners.length )
         {
-            computerLock.unlock();
+            if( workStealing )
+            {
+                RunQueue[] newQueues = Arrays.copyOf( queues, count );
+                for( int i = oldRunners.length; i < count; i++ ) newQueues[i] = new RunQueue();
+                queues = newQueues;
+            }
+
+            if( running )
+            {
+                for( int i = oldRunners.length; i < count; i++ ) startRunner( i );
+            }
+        }
+        else
+        {
+            RunQueue[] oldQueues = queues;
+            if( workStealing ) queues = Arrays.copyOf( oldQueues, count );
+
+            for( int i = count; i < oldRunners.length; i++ )
+            {
+                TaskRunner runner = oldRunners[i];
+                if( runner != null ) runner.running = false;
+            }
+
+            if( workStealing )
+            {
+                for( int i = count; i < oldQueues.length; i++ ) oldQueues[i].retire( queues );
+            }
+            else
+            {
+                oldQueues[0].wakeAll();
+            }
         }
     }
 
+    /**
+     * Recompute {@link #latency} and {@link #minPeriod} from the current number of runners.
+     */
+    private static void updateLatency()
+    {
+        // latency and minPeriod are scaled by 1 + floor(log2(threads)). We can afford to execute tasks for
+        // longer when executing on more than one thread.
+        long factor = 64 - Long.numberOfLeadingZeros( runners.length );
+        latency = DEFAULT_LATENCY * factor;
+        minPeriod = DEFAULT_MIN_PERIOD * factor;
+    }
+
+    /**
+     * Grow or shrink the runner pool based on how many computers are waiting to run.
+     *
+     * This only has an effect if {@link ComputerCraft#maxComputerThreads} is larger than
+     * {@link ComputerCraft#computer_threads}. In that case, we add a runner whenever there are more computers waiting
+     * than there are runners, and remove one (down to {@link ComputerCraft#computer_threads}) when nothing is waiting
+     * and several runners are sat idle.
+     */
+    private static void autoScale()
+    {
+        int min = ComputerCraft.computer_threads, max = ComputerCraft.maxComputerThreads;
+        if( max <= min ) return;
+
+        long now = System.nanoTime(), last = lastAutoScale.get();
+        if( now - last < AUTO_SCALE_INTERVAL || !lastAutoScale.compareAndSet( last, now ) ) return;
+
+        synchronized( threadLock )
+        {
+            if( !running || runners == null ) return;
+
+            int count = runners.length, queued = queuedCount.get();
+            if( queued > count && count < max )
+            {
+                resize( count + 1 );
+            }
+            else if( queued == 0 && count > min )
+            {
+                int idle = 0;
+                for( TaskRunner runner : runners )
+                {
+                    if( runner != null && runner.currentExecutor.get() == null ) idle++;
+                }
+
+                if( idle > 1 ) resize( count - 1 );
+            }
+        }
+    }
+
+    /**
+     * Replace a runner which has crashed or been killed with a new one.
+     *
+     * @param runner The runner to replace.
+     */
+    private static void replaceRunner( TaskRunner runner )
+    {
+        synchronized( threadLock )
+        {
+            runner.running = false;
+            if( !running || runners == null ) return;
+
+            for( int i = 0; i < runners.length; i++ )
+            {
+                if( runners[i] == runner )
+                {
+                    startRunner( i );
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Create a new runner at the given index, and start its thread.
+     *
+     * You must be holding {@link #threadLock} when calling this method.
+     *
+     * @param index The index of the runner within {@link #runners}.
+     */
+    private static void startRunner( int index )
+    {
+        TaskRunner runner = runners[index] = new TaskRunner( workStealing ? queues[index] : queues[0] );
+        if( workStealing ) runner.queue.runner = runner;
+        runnerFactory.newThread( runner ).start();
+    }
+
     /**
      * Mark a computer as having work, enqueuing it on the thread.
      *
@@ -202,17 +417,20 @@ public final class ComputerThread
      */
     static void queue( @Nonnull ComputerExecutor executor )
     {
-        computerLock.lock();
+        RunQueue queue = lockQueue( pickQueue() );
         try
         {
             if( executor.onComputerQueue ) throw new IllegalStateException( "Cannot queue already queued executor" );
             executor.onComputerQueue = true;
 
-            updateRuntimes( null );
+            ExecutorGroup group = executor.group = executor.schedulingGroup;
+            if( group != null ) group.addActive();
+
+            queue.updateRuntimes( null );
 
             // We're not currently on the queue, so update its current execution time to
             // ensure its at least as high as the minimum.
-            long newRuntime = minimumVirtualRuntime;
+            long newRuntime = queue.minimumVirtualRuntime;
 
             if( executor.virtualRuntime == 0 )
             {
@@ -228,59 +446,54 @@ public final class ComputerThread
             executor.virtualRuntime = Math.max( newRuntime, executor.virtualRuntime );
 
             // Add to the queue, and signal the workers.
-            computerQueue.add( executor );
-            hasWork.signal();
+            queue.add( executor );
         }
         finally
         {
-            computerLock.unlock();
+            queue.lock.unlock();
         }
     }
 
-
     /**
-     * Update the {@link ComputerExecutor#virtualRuntime}s of all running tasks, and then update the
-     * {@link #minimumVirtualRuntime} based on the current tasks.
+     * Find the queue a newly scheduled executor should be added to.
      *
-     * This is called before queueing tasks, to ensure that {@link #minimumVirtualRuntime} is up-to-date.
+     * When work stealing, we prefer queues whose runner is currently waiting for work, falling back to the shorter of
+     * two randomly chosen queues.
      *
-     * @param current The machine which we updating runtimes from.
+     * @return The queue to add to.
      */
-    private static void updateRuntimes( @Nullable ComputerExecutor current )
+    private static RunQueue pickQueue()
     {
-        long minRuntime = Long.MAX_VALUE;
-
-        // If we've a task on the queue, use that as our base time.
-        if( !computerQueue.isEmpty() ) minRuntime = computerQueue.first().virtualRuntime;
+        RunQueue[] queues = ComputerThread.queues;
+        if( queues.length == 1 ) return queues[0];
 
-        // Update all the currently executing tasks
-        long now = System.nanoTime();
-        int tasks = 1 + computerQueue.size();
-        TaskRunner[] currentRunners = runners;
-        if( currentRunners != null )
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int start = random.nextInt( queues.length );
+        for( int i = 0; i < queues.length; i++ )
         {
-            for( TaskRunner runner : currentRunners )
-            {
-                if( runner == null ) continue;
-                ComputerExecutor executor = runner.currentExecutor.get();
-                if( executor == null ) continue;
-
-                // We do two things here: first we update the task's virtual runtime based on when we
-                // last checked, and then we check the minimum.
-                minRuntime = Math.min( minRuntime, executor.virtualRuntime += (now - executor.vRuntimeStart) / tasks );
-                executor.vRuntimeStart = now;
-            }
+            RunQueue queue = queues[(start + i) % queues.length];
+            if( queue.waiting ) return queue;
         }
 
-        // And update the most recently executed one (if set).
-        if( current != null )
-        {
-            minRuntime = Math.min( minRuntime, current.virtualRuntime += (now - current.vRuntimeStart) / tasks );
-        }
+        RunQueue first = queues[start], second = queues[random.nextInt( queues.length )];
+        return second.size < first.size ? second : first;
+    }
 
-        if( minRuntime > minimumVirtualRuntime && minRuntime < Long.MAX_VALUE )
+    /**
+     * Acquire the lock for a queue. If the queue has been retired, then we pick another queue instead.
+     *
+     * @param queue The queue to lock.
+     * @return The queue which is now locked.
+     */
+    private static RunQueue lockQueue( RunQueue queue )
+    {
+        while( true )
         {
-            minimumVirtualRuntime = minRuntime;
+            queue.lock.lock();
+            if( !queue.retired ) return queue;
+
+            queue.lock.unlock();
+            queue = pickQueue();
         }
     }
 
@@ -303,21 +516,27 @@ public final class ComputerThread
             );
         }
 
-        computerLock.lock();
+        RunQueue queue = lockQueue( runner.queue );
         try
         {
-            updateRuntimes( executor );
+            queue.updateRuntimes( executor );
 
             // If we've no more tasks, just return.
-            if( !executor.afterWork() ) return;
+            if( !executor.afterWork() )
+            {
+                if( executor.group != null ) executor.group.removeActive();
+
+                // If the computer has used up its CPU quota, wake it up once it's allowed to run again.
+                if( executor.isParked() ) deadlines.add( new Deadline( executor, executor.parkedUntil ) );
+                return;
+            }
 
             // Otherwise, add to the queue, and signal any waiting workers.
-            computerQueue.add( executor );
-            hasWork.signal();
+            queue.add( executor );
         }
         finally
         {
-            computerLock.unlock();
+            queue.lock.unlock();
         }
     }
 
@@ -332,7 +551,7 @@ public final class ComputerThread
     static long scaledPeriod()
     {
         // +1 to include the current task
-        int count = 1 + computerQueue.size();
+        int count = 1 + queuedCount.get();
         return count < LATENCY_MAX_TASKS ? latency / count : minPeriod;
     }
 
@@ -343,12 +562,49 @@ public final class ComputerThread
      */
     static boolean hasPendingWork()
     {
-        return !computerQueue.isEmpty();
+        return queuedCount.get() > 0;
     }
 
     /**
-     * Observes all currently active {@link TaskRunner}s and terminates their tasks once they have exceeded the hard
-     * abort limit.
+     * Take an executor from the busiest of the other runners' queues.
+     *
+     * We only attempt to acquire other queues' locks, rather than waiting on them, so that two idle runners cannot
+     * deadlock trying to steal from each other.
+     *
+     * @param thief The queue we are stealing for. The caller must hold its lock.
+     * @return The stolen executor, or {@code null} if there was nothing to steal.
+     */
+    @Nullable
+    private static ComputerExecutor steal( RunQueue thief )
+    {
+        RunQueue victim = null;
+        for( RunQueue queue : queues )
+        {
+            if( queue != thief && queue.size > 0 && (victim == null || queue.size > victim.size) ) victim = queue;
+        }
+
+        if( victim == null || !victim.lock.tryLock() ) return null;
+        try
+        {
+            ComputerExecutor executor = victim.poll();
+            if( executor == null ) return null;
+
+            // Rebase the executor's runtime relative to its new queue, so it's neither penalised nor boosted by the
+            // move.
+            executor.virtualRuntime = Math.max( 0,
+                executor.virtualRuntime - victim.minimumVirtualRuntime + thief.minimumVirtualRuntime
+            );
+            return executor;
+        }
+        finally
+        {
+            victim.lock.unlock();
+        }
+    }
+
+    /**
+     * Waits for the {@link Deadline}s of currently running tasks to expire, and terminates the task once it has exceeded
+     * the hard abort limit.
      *
      * @see TimeoutState
      */
@@ -361,67 +617,10 @@ public final class ComputerThread
             {
                 while( true )
                 {
-                    Thread.sleep( MONITOR_WAKEUP );
-
-                    TaskRunner[] currentRunners = ComputerThread.runners;
-                    if( currentRunners != null )
+                    Deadline deadline = deadlines.take();
+                    synchronized( deadline )
                     {
-                        for( int i = 0; i < currentRunners.length; i++ )
-                        {
-                            TaskRunner runner = currentRunners[i];
-                            // If we've no runner, skip.
-                            if( runner == null || runner.owner == null || !runner.owner.isAlive() )
-                            {
-                                if( !running ) continue;
-
-                                // Mark the old runner as dead and start a new one.
-                                ComputerCraft.log.warn( "Previous runner ({}) has crashed, restarting!",
-                                    runner != null && runner.owner != null ? runner.owner.getName() : runner );
-                                if( runner != null ) runner.running = false;
-                                runnerFactory.newThread( runners[i] = new TaskRunner() ).start();
-                            }
-
-                            // If the runner has no work, skip
-                            ComputerExecutor executor = runner.currentExecutor.get();
-                            if( executor == null ) continue;
-
-                            // If we're still within normal execution times (TIMEOUT) or soft abort (ABORT_TIMEOUT),
-                            // then we can let the Lua machine do its work.
-                            long afterStart = executor.timeout.nanoCumulative();
-                            long afterHardAbort = afterStart - TIMEOUT - ABORT_TIMEOUT;
-                            if( afterHardAbort < 0 ) continue;
-
-                            // Set the hard abort flag.
-                            executor.timeout.hardAbort();
-                            executor.abort();
-
-                            if( afterHardAbort >= ABORT_TIMEOUT )
-                            {
-                                // If we've hard aborted but we're still not dead, dump the stack trace and interrupt
-                                // the task.
-                                timeoutTask( executor, runner.owner, afterStart );
-                                runner.owner.interrupt();
-                            }
-                            else if( afterHardAbort >= ABORT_TIMEOUT * 2 )
-                            {
-                                // If we've hard aborted and interrupted, and we're still not dead, then mark the runner
-                                // as dead, finish off the task, and spawn a new runner.
-                                timeoutTask( executor, runner.owner, afterStart );
-                                runner.running = false;
-                                runner.owner.interrupt();
-
-                                ComputerExecutor thisExecutor = runner.currentExecutor.getAndSet( null );
-                                if( thisExecutor != null ) afterWork( runner, executor );
-
-                                synchronized( threadLock )
-                                {
-                                    if( running && runners.length > i && runners[i] == runner )
-                                    {
-                                        runnerFactory.newThread( currentRunners[i] = new TaskRunner() ).start();
-                                    }
-                                }
-                            }
-                        }
+                        if( !deadline.cancelled ) expire( deadline );
                     }
                 }
             }
@@ -429,10 +628,358 @@ public final class ComputerThread
             {
             }
         }
+
+        /**
+         * Handle a deadline expiring, advancing it to its next stage.
+         *
+         * You must be holding the deadline's lock when calling this method.
+         *
+         * @param deadline The deadline which has expired.
+         */
+        private static void expire( Deadline deadline )
+        {
+            TaskRunner runner = deadline.runner;
+            ComputerExecutor executor = deadline.executor;
+            if( deadline.stage == Deadline.UNPARK )
+            {
+                executor.unpark();
+                return;
+            }
+
+            if( runner.currentExecutor.get() != executor ) return;
+
+            switch( deadline.stage )
+            {
+                case Deadline.HARD_ABORT:
+                    // Set the hard abort flag.
+                    executor.timeout.hardAbort();
+                    executor.abort();
+                    break;
+
+                case Deadline.INTERRUPT:
+                    // If we've hard aborted but we're still not dead, dump the stack trace and interrupt the task.
+                    timeoutTask( executor, runner.owner, executor.timeout.nanoCumulative() );
+                    runner.owner.interrupt();
+                    break;
+
+                case Deadline.KILL:
+                default:
+                {
+                    // If we've hard aborted and interrupted, and we're still not dead, then mark the runner as dead,
+                    // finish off the task, and spawn a new runner.
+                    timeoutTask( executor, runner.owner, executor.timeout.nanoCumulative() );
+                    runner.running = false;
+                    runner.owner.interrupt();
+
+                    ComputerExecutor thisExecutor = runner.currentExecutor.getAndSet( null );
+                    if( thisExecutor != null ) afterWork( runner, executor );
+
+                    replaceRunner( runner );
+                    return;
+                }
+            }
+
+            // Rearm the deadline for the next stage.
+            deadline.stage++;
+            deadline.time += ABORT_TIMEOUT;
+            deadlines.add( deadline );
+        }
+    }
+
+    /**
+     * The point at which a running task should be forcibly terminated.
+     *
+     * Deadlines are armed by a {@link TaskRunner} when it starts executing a task, and cancelled once it finishes. If
+     * the task runs past its deadline, the {@link Monitor} will hard abort it, then interrupt the runner, and finally
+     * kill the runner altogether, leaving {@link TimeoutState#ABORT_TIMEOUT} between each stage.
+     *
+     * Deadlines are also used to wake computers which have been parked for exceeding their CPU quota (see
+     * {@link ComputerExecutor#afterWork()}). These have no runner, and are never cancelled.
+     */
+    static final class Deadline implements Delayed
+    {
+        static final int HARD_ABORT = 0;
+        static final int INTERRUPT = 1;
+        static final int KILL = 2;
+        static final int UNPARK = 3;
+
+        final TaskRunner runner;
+        final ComputerExecutor executor;
+
+        /**
+         * When this deadline expires, relative to {@link System#nanoTime()}. This is only modified while the deadline
+         * is not on the {@link #deadlines} queue.
+         */
+        long time;
+
+        /**
+         * Which action to take when this deadline expires.
+         */
+        int stage = HARD_ABORT;
+
+        /**
+         * Whether the task has finished, and so this deadline should no longer fire. This is guarded by the deadline's
+         * lock.
+         */
+        boolean cancelled;
+
+        Deadline( TaskRunner runner, ComputerExecutor executor )
+        {
+            this.runner = runner;
+            this.executor = executor;
+            time = executor.timeout.hardAbortDeadline();
+        }
+
+        Deadline( ComputerExecutor executor, long time )
+        {
+            runner = null;
+            this.executor = executor;
+            this.time = time;
+            stage = UNPARK;
+        }
+
+        @Override
+        public long getDelay( @Nonnull TimeUnit unit )
+        {
+            return unit.convert( time - System.nanoTime(), TimeUnit.NANOSECONDS );
+        }
+
+        @Override
+        public int compareTo( @Nonnull Delayed other )
+        {
+            long delta = time - ((Deadline) other).time;
+            return delta < 0 ? -1 : delta > 0 ? 1 : 0;
+        }
+    }
+
+    /**
+     * A queue of executors waiting to be run, ordered by their {@link ComputerExecutor#virtualRuntime}.
+     *
+     * @see #queues
+     */
+    private static final class RunQueue
+    {
+        final ReentrantLock lock = new ReentrantLock();
+
+        final Condition hasWork = lock.newCondition();
+
+        /**
+         * Active executors to execute.
+         */
+        private final TreeSet<ComputerExecutor> executors = new TreeSet<>( RUNTIME_ORDER );
+
+        /**
+         * The runner which owns this queue, or {@code null} if this queue is shared between all runners.
+         */
+        TaskRunner runner;
+
+        /**
+         * The minimum {@link ComputerExecutor#virtualRuntime} time on the tree.
+         */
+        long minimumVirtualRuntime = 0;
+
+        /**
+         * The number of executors in this queue. This may be read without holding the {@link #lock}.
+         */
+        volatile int size;
+
+        /**
+         * Whether a runner is currently waiting on {@link #hasWork}.
+         */
+        volatile boolean waiting;
+
+        /**
+         * Whether this queue's runner has been removed. Retired queues should not have any more work added to them.
+         *
+         * @see #lockQueue(RunQueue)
+         */
+        boolean retired;
+
+        void add( ComputerExecutor executor )
+        {
+            executors.add( executor );
+            size = executors.size();
+            queuedCount.incrementAndGet();
+            hasWork.signal();
+        }
+
+        @Nullable
+        ComputerExecutor poll()
+        {
+            ComputerExecutor executor = executors.pollFirst();
+            if( executor != null )
+            {
+                size = executors.size();
+                queuedCount.decrementAndGet();
+            }
+            return executor;
+        }
+
+        void clear()
+        {
+            lock.lock();
+            try
+            {
+                queuedCount.addAndGet( -executors.size() );
+                for( ComputerExecutor executor : executors )
+                {
+                    if( executor.group != null ) executor.group.removeActive();
+                }
+                executors.clear();
+                size = 0;
+            }
+            finally
+            {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Wake all runners waiting on this queue, so they can check whether they should continue running.
+         */
+        void wakeAll()
+        {
+            lock.lock();
+            try
+            {
+                hasWork.signalAll();
+            }
+            finally
+            {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Mark this queue as retired, moving its work onto other queues and waking its runner.
+         *
+         * @param targets The queues to move any pending work to.
+         */
+        void retire( RunQueue[] targets )
+        {
+            lock.lock();
+            try
+            {
+                retired = true;
+                drainTo( targets );
+                hasWork.signalAll();
+            }
+            finally
+            {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Move all executors in this queue onto another set of queues, distributing them evenly.
+         *
+         * @param targets The queues to move to.
+         */
+        void drainTo( RunQueue[] targets )
+        {
+            lock.lock();
+            try
+            {
+                int i = 0;
+                ComputerExecutor executor;
+                while( (executor = poll()) != null )
+                {
+                    RunQueue target = targets[i++ % targets.length];
+                    target.lock.lock();
+                    try
+                    {
+                        executor.virtualRuntime = Math.max( target.minimumVirtualRuntime, executor.virtualRuntime );
+                        target.add( executor );
+                    }
+                    finally
+                    {
+                        target.lock.unlock();
+                    }
+                }
+            }
+            finally
+            {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Update the {@link ComputerExecutor#virtualRuntime}s of all running tasks, and then update the
+         * {@link #minimumVirtualRuntime} based on the current tasks.
+         *
+         * This is called before queueing tasks, to ensure that {@link #minimumVirtualRuntime} is up-to-date. You must
+         * be holding {@link #lock} when calling this method.
+         *
+         * @param current The machine which we updating runtimes from.
+         */
+        void updateRuntimes( @Nullable ComputerExecutor current )
+        {
+            long minRuntime = Long.MAX_VALUE;
+
+            // If we've a task on the queue, use that as our base time.
+            if( !executors.isEmpty() ) minRuntime = executors.first().virtualRuntime;
+
+            // Update all the currently executing tasks. If we're a shared queue, then this is all runners - otherwise
+            // it's just our runner.
+            long now = System.nanoTime();
+            int tasks = 1 + executors.size();
+            if( runner != null )
+            {
+                minRuntime = updateRuntime( runner, now, tasks, minRuntime );
+            }
+            else
+            {
+                TaskRunner[] currentRunners = runners;
+                if( currentRunners != null )
+                {
+                    for( TaskRunner runner : currentRunners ) minRuntime = updateRuntime( runner, now, tasks, minRuntime );
+                }
+            }
+
+            // And update the most recently executed one (if set).
+            if( current != null )
+            {
+                minRuntime = Math.min( minRuntime, current.virtualRuntime += scaleRuntime( current, now, tasks ) );
+            }
+
+            if( minRuntime > minimumVirtualRuntime && minRuntime < Long.MAX_VALUE )
+            {
+                minimumVirtualRuntime = minRuntime;
+            }
+        }
+
+        private static long updateRuntime( @Nullable TaskRunner runner, long now, int tasks, long minRuntime )
+        {
+            if( runner == null ) return minRuntime;
+            ComputerExecutor executor = runner.currentExecutor.get();
+            if( executor == null ) return minRuntime;
+
+            // We do two things here: first we update the task's virtual runtime based on when we
+            // last checked, and then we check the minimum.
+            minRuntime = Math.min( minRuntime, executor.virtualRuntime += scaleRuntime( executor, now, tasks ) );
+            executor.vRuntimeStart = now;
+            return minRuntime;
+        }
+
+        /**
+         * Compute how much an executor's virtual runtime should advance by.
+         *
+         * This is the time since we last updated it, split across all tasks and then scaled by the size of the
+         * executor's group.
+         *
+         * @param executor The executor to update.
+         * @param now      The current time.
+         * @param tasks    The number of tasks competing for this queue.
+         * @return The amount to increase the virtual runtime by.
+         */
+        private static long scaleRuntime( ComputerExecutor executor, long now, int tasks )
+        {
+            return (now - executor.vRuntimeStart) / tasks * ExecutorGroup.weight( executor.group );
+        }
     }
 
     /**
-     * Pulls tasks from the {@link #computerQueue} queue and runs them.
+     * Pulls tasks from its {@link RunQueue} (or those of other runners) and runs them.
      *
      * This is responsible for running the {@link ComputerExecutor#work()}, {@link ComputerExecutor#beforeWork()} and
      * {@link ComputerExecutor#afterWork()} functions. Everything else is either handled by the executor, timeout
@@ -443,13 +990,37 @@ public final class ComputerThread
         Thread owner;
         volatile boolean running = true;
 
+        final RunQueue queue;
+
         final AtomicReference<ComputerExecutor> currentExecutor = new AtomicReference<>();
 
+        TaskRunner( RunQueue queue )
+        {
+            this.queue = queue;
+        }
+
         @Override
         public void run()
         {
             owner = Thread.currentThread();
+            try
+            {
+                runTasks();
+            }
+            finally
+            {
+                // If we've exited without being asked to, then something has gone very wrong. Start a new runner in
+                // our place.
+                if( running && ComputerThread.running )
+                {
+                    ComputerCraft.log.warn( "Previous runner ({}) has crashed, restarting!", owner.getName() );
+                    replaceRunner( this );
+                }
+            }
+        }
 
+        private void runTasks()
+        {
             tasks:
             while( running && ComputerThread.running )
             {
@@ -457,17 +1028,8 @@ public final class ComputerThread
                 ComputerExecutor executor;
                 try
                 {
-                    computerLock.lockInterruptibly();
-                    try
-                    {
-                        while( computerQueue.isEmpty() ) hasWork.await();
-                        executor = computerQueue.pollFirst();
-                        assert executor != null : "hasWork should ensure we never receive null work";
-                    }
-                    finally
-                    {
-                        computerLock.unlock();
-                    }
+                    executor = take();
+                    if( executor == null ) continue;
                 }
                 catch( InterruptedException ignored )
                 {
@@ -494,9 +1056,11 @@ public final class ComputerThread
                 // Reset the timers
                 executor.beforeWork();
 
-                // And then set the current executor. It's important to do it afterwards, as otherwise we introduce
-                // race conditions with the monitor.
+                // And then set the current executor and arm the deadline. It's important to do it afterwards, as
+                // otherwise we introduce race conditions with the monitor.
                 currentExecutor.set( executor );
+                Deadline deadline = new Deadline( this, executor );
+                deadlines.add( deadline );
 
                 // Execute the task
                 try
@@ -509,9 +1073,74 @@ public final class ComputerThread
                 }
                 finally
                 {
+                    synchronized( deadline )
+                    {
+                        deadline.cancelled = true;
+                        deadlines.remove( deadline );
+                    }
+
                     ComputerExecutor thisExecutor = currentExecutor.getAndSet( null );
                     if( thisExecutor != null ) afterWork( this, executor );
                 }
+
+                autoScale();
+            }
+        }
+
+        /**
+         * Wait for an executor to become available on our queue, or steal one from another runner.
+         *
+         * @return The executor to run, or {@code null} if this runner has been stopped.
+         * @throws InterruptedException If we were interrupted while waiting.
+         */
+        @Nullable
+        private ComputerExecutor take() throws InterruptedException
+        {
+            queue.lock.lockInterruptibly();
+            try
+            {
+                while( true )
+                {
+                    if( !running || !ComputerThread.running ) return null;
+
+                    ComputerExecutor executor = queue.poll();
+                    if( executor != null ) return executor;
+
+                    if( !workStealing )
+                    {
+                        waitForWork( -1 );
+                        continue;
+                    }
+
+                    executor = steal( queue );
+                    if( executor != null ) return executor;
+
+                    waitForWork( STEAL_WAKEUP );
+                }
+            }
+            finally
+            {
+                queue.lock.unlock();
+            }
+        }
+
+        private void waitForWork( long timeout ) throws InterruptedException
+        {
+            queue.waiting = true;
+            try
+            {
+                if( timeout < 0 )
+                {
+                    queue.hasWork.await();
+                }
+                else
+                {
+                    queue.hasWork.awaitNanos( timeout );
+                }
+            }
+            finally
+            {
+                queue.waiting = false;
             }
         }
     }
@@ -0,0 +1,83 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2020. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.computer;
+
+import com.google.common.collect.MapMaker;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A group of {@link ComputerExecutor}s which share a single fair share of execution time.
+ *
+ * {@link ComputerThread} normally gives every computer an equal share of time. When computers are grouped (for
+ * instance, by dimension), each group instead receives an equal share, which is then split evenly between the
+ * computers within it. This means someone placing hundreds of computers does not slow down everyone else.
+ *
+ * This is implemented by scaling how quickly an executor's {@link ComputerExecutor#virtualRuntime} advances by the
+ * number of active executors in its group. A group with {@code n} active computers therefore accrues virtual runtime
+ * {@code n} times faster per computer, and so receives the same total share as a group with a single computer.
+ *
+ * @see IComputerEnvironment#getSchedulingGroup()
+ */
+final class ExecutorGroup
+{
+    private static final ConcurrentMap<Object, ExecutorGroup> groups = new MapMaker().weakValues().makeMap();
+
+    private final Object key;
+
+    /**
+     * The number of executors in this group which are currently queued or running.
+     */
+    private final AtomicInteger active = new AtomicInteger();
+
+    private ExecutorGroup( Object key )
+    {
+        this.key = key;
+    }
+
+    /**
+     * Get the group for a given key, creating it if needed.
+     *
+     * @param key The group's key, as provided by {@link IComputerEnvironment#getSchedulingGroup()}.
+     * @return The group, or {@code null} if the key was {@code null}.
+     */
+    @Nullable
+    static ExecutorGroup get( @Nullable Object key )
+    {
+        return key == null ? null : groups.computeIfAbsent( key, ExecutorGroup::new );
+    }
+
+    void addActive()
+    {
+        active.incrementAndGet();
+    }
+
+    void removeActive()
+    {
+        active.decrementAndGet();
+    }
+
+    /**
+     * The factor by which an executor's virtual runtime should be scaled.
+     *
+     * @param group The executor's group.
+     * @return The weight of this group.
+     */
+    static int weight( @Nullable ExecutorGroup group )
+    {
+        return group == null ? 1 : Math.max( 1, group.active.get() );
+    }
+
+    @Nonnull
+    @Override
+    public String toString()
+    {
+        return "ExecutorGroup{" + key + ", active=" + active.get() + "}";
+    }
+}
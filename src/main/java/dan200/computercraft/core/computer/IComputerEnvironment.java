@@ -8,6 +8,7 @@ package dan200.computercraft.core.computer;
 import dan200.computercraft.api.filesystem.IMount;
 import dan200.computercraft.api.filesystem.IWritableMount;
 
+import javax.annotation.Nullable;
 import java.io.InputStream;
 
 public interface IComputerEnvironment
@@ -29,4 +30,32 @@ public interface IComputerEnvironment
     IMount createResourceMount( String domain, String subPath );
 
     InputStream createResourceFile( String domain, String subPath );
+
+    /**
+     * Get the group this computer should be scheduled as part of. Computers within the same group share a single fair
+     * share of execution time, rather than each receiving their own.
+     *
+     * This is only read when the computer is turned on, or when {@link Computer#updateSchedulingGroup()} is called,
+     * so should be cheap to compute and ideally not allocate.
+     *
+     * @return The key for this computer's group, or {@code null} if it should be scheduled on its own.
+     * @see ExecutorGroup
+     */
+    @Nullable
+    default Object getSchedulingGroup()
+    {
+        return null;
+    }
+
+    /**
+     * Get the priority of this computer when waiting to be started. Computers with a lower value will be started
+     * first.
+     *
+     * @return This computer's boot priority.
+     * @see BootQueue
+     */
+    default double getBootPriority()
+    {
+        return 0;
+    }
 }
@@ -23,8 +23,11 @@ import java.util.concurrent.atomic.AtomicLong;
  * {@link MainThread} starts cool, and runs as many tasks as it can in the current {@link #budget}ns. Any external tasks
  * (those run by tile entities, etc...) will also consume the budget
  *
- * Next tick, we put {@link ComputerCraft#maxMainGlobalTime} into our budget (and clamp it to that value to). If we're
+ * Next tick, we put {@link MainThreadBudget#global()} into our budget (and clamp it to that value to). If we're
  * still over budget, then we should not execute <em>any</em> work (either as part of {@link MainThread} or externally).
+ *
+ * The budget itself is at most {@link ComputerCraft#maxMainGlobalTime}, but may be lowered when the rest of the server
+ * tick is running slowly. See {@link MainThreadBudget} for more details.
  */
 public final class MainThread
 {
@@ -68,6 +71,13 @@ public final class MainThread
      */
     private static long budget;
 
+    /**
+     * The total time spent executing work this tick, including external tasks.
+     *
+     * @see #finishTick(long)
+     */
+    private static long tickTime;
+
     /**
      * Whether we should be executing any work this tick.
      *
@@ -113,6 +123,7 @@ public final class MainThread
     static void consumeTime( long time )
     {
         budget -= time;
+        tickTime += time;
     }
 
     static boolean canExecute()
@@ -133,12 +144,17 @@ public final class MainThread
         // Of course, we'll go over the MAX_TICK_TIME most of the time, but eventually that overrun will accumulate
         // and we'll skip a whole tick - bringing the average back down again.
         currentTick++;
-        budget = Math.min( budget + ComputerCraft.maxMainGlobalTime, ComputerCraft.maxMainGlobalTime );
+        tickTime = 0;
+        long globalBudget = MainThreadBudget.global();
+        budget = Math.min( budget + globalBudget, globalBudget );
         canExecute = budget > 0;
 
         // Cool down any warm computers.
         cooling.removeIf( MainThreadExecutor::tickCooling );
 
+        // Start any computers waiting to boot.
+        BootQueue.tick();
+
         if( !canExecute ) return;
 
         // Run until we meet the deadline.
@@ -153,13 +169,13 @@ public final class MainThread
             }
             if( executor == null ) break;
 
-            long taskStart = System.nanoTime();
-            executor.execute();
-
+            // Run a batch of tasks from this executor. We avoid holding the lock while doing so, as computers may
+            // need it to queue new tasks.
+            long taskTime = executor.execute( deadline );
             long taskStop = System.nanoTime();
             synchronized( executors )
             {
-                if( executor.afterExecute( taskStop - taskStart ) ) executors.add( executor );
+                if( executor.afterExecute( taskTime ) ) executors.add( executor );
 
                 // Compute the new minimum time (including the next task on the queue too). Note that this may also include
                 // time spent in external tasks.
@@ -178,10 +194,22 @@ public final class MainThread
         consumeTime( System.nanoTime() - start );
     }
 
+    /**
+     * Mark the current server tick as having finished, updating the {@link MainThreadBudget}.
+     *
+     * @param duration The total time this tick took, including time spent on {@link #executePendingTasks()}.
+     */
+    public static void finishTick( long duration )
+    {
+        MainThreadBudget.update( duration, tickTime );
+    }
+
     public static void reset()
     {
         currentTick = 0;
         budget = 0;
+        tickTime = 0;
+        MainThreadBudget.reset();
         canExecute = true;
         minimumTime = 0;
         lastTaskId.set( 0 );
@@ -0,0 +1,105 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2020. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.computer;
+
+import dan200.computercraft.ComputerCraft;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adjusts the time computers may spend on the main thread, based on how long the rest of the server tick takes.
+ *
+ * We keep a moving average of the time spent in each server tick <em>outside</em> of computer work. The global budget
+ * is then whatever is left of a 50ms tick, clamped between {@link ComputerCraft#minMainGlobalTime} and
+ * {@link ComputerCraft#maxMainGlobalTime}. The per-computer budget is scaled by the same proportion, and clamped between
+ * {@link ComputerCraft#minMainComputerTime} and {@link ComputerCraft#maxMainComputerTime}.
+ *
+ * If the minimum and maximum bounds are equal, then the budgets are fixed, as they were before.
+ *
+ * @see MainThread
+ * @see MainThreadExecutor
+ */
+public final class MainThreadBudget
+{
+    /**
+     * The ideal length of a server tick.
+     */
+    private static final long TICK_LENGTH = TimeUnit.MILLISECONDS.toNanos( 50 );
+
+    /**
+     * The weight given to the most recent tick when updating our moving average.
+     */
+    private static final double SMOOTHING = 0.1;
+
+    /**
+     * The average time spent in a tick, excluding any computer work.
+     */
+    private static double averageOther = -1;
+
+    private static volatile long globalBudget = ComputerCraft.maxMainGlobalTime;
+    private static volatile long computerBudget = ComputerCraft.maxMainComputerTime;
+
+    private MainThreadBudget() {}
+
+    /**
+     * The time all computers may spend on the main thread this tick.
+     *
+     * @return The global budget, in nanoseconds.
+     */
+    public static long global()
+    {
+        return globalBudget;
+    }
+
+    /**
+     * The time each computer may spend on the main thread this tick.
+     *
+     * @return The per-computer budget, in nanoseconds.
+     */
+    public static long computer()
+    {
+        return computerBudget;
+    }
+
+    /**
+     * The average time spent in each tick outside of computers.
+     *
+     * @return The average time, in nanoseconds.
+     */
+    public static long averageTickTime()
+    {
+        return Math.max( 0, (long) averageOther );
+    }
+
+    /**
+     * Update the budgets after a server tick has completed.
+     *
+     * @param tickTime     The total length of the tick.
+     * @param computerTime The time spent executing computer work during that tick.
+     */
+    static void update( long tickTime, long computerTime )
+    {
+        long other = Math.max( 0, tickTime - computerTime );
+        averageOther = averageOther < 0 ? other : averageOther + (other - averageOther) * SMOOTHING;
+
+        long maxGlobal = ComputerCraft.maxMainGlobalTime, maxComputer = ComputerCraft.maxMainComputerTime;
+        long global = clamp( TICK_LENGTH - (long) averageOther, ComputerCraft.minMainGlobalTime, maxGlobal );
+        globalBudget = global;
+        computerBudget = clamp( maxComputer * global / maxGlobal, ComputerCraft.minMainComputerTime, maxComputer );
+    }
+
+    static void reset()
+    {
+        averageOther = -1;
+        globalBudget = ComputerCraft.maxMainGlobalTime;
+        computerBudget = ComputerCraft.maxMainComputerTime;
+    }
+
+    private static long clamp( long value, long min, long max )
+    {
+        return Math.max( min, Math.min( max, value ) );
+    }
+}
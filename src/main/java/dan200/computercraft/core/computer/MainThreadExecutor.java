@@ -13,7 +13,7 @@ import net.minecraft.tileentity.TileEntity;
 
 import javax.annotation.Nonnull;
 import java.util.ArrayDeque;
-import java.util.Queue;
+import java.util.Deque;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -52,14 +52,25 @@ import java.util.concurrent.TimeUnit;
 final class MainThreadExecutor implements IWorkMonitor
 {
     /**
-     * The maximum number of {@link MainThread} tasks allowed on the queue.
+     * The maximum number of {@link MainThread} tasks allowed on the queue. This includes those taken off the queue for
+     * the batch currently being run.
      */
     private static final int MAX_TASKS = 5000;
 
+    /**
+     * The maximum number of tasks to run each time this executor is polled from the {@link MainThread} queue.
+     *
+     * Many tasks (such as fetching block or item details) are very cheap, and so updating the {@link MainThread} queue
+     * after each one would cost more than the tasks themselves.
+     *
+     * @see #execute(long)
+     */
+    private static final int BATCH_SIZE = 64;
+
     private final Computer computer;
 
     /**
-     * A lock used for any changes to {@link #tasks}, or {@link #onQueue}. This will be
+     * A lock used for any changes to {@link #tasks}, {@link #inFlight} or {@link #onQueue}. This will be
      * used on the main thread, so locks should be kept as brief as possible.
      */
     private final Object queueLock = new Object();
@@ -69,7 +80,22 @@ final class MainThreadExecutor implements IWorkMonitor
      *
      * @see #queueLock
      */
-    private final Queue<Runnable> tasks = new ArrayDeque<>( 4 );
+    private final Deque<Runnable> tasks = new ArrayDeque<>( 4 );
+
+    /**
+     * Tasks taken from {@link #tasks} for the current batch. This is only accessed from the main thread.
+     *
+     * @see #execute(long)
+     */
+    private final Runnable[] batch = new Runnable[BATCH_SIZE];
+
+    /**
+     * The number of tasks taken off {@link #tasks} for the current batch. These still count towards {@link #MAX_TASKS}
+     * until the batch finishes, so the limit is slightly stricter while a batch is running.
+     *
+     * @see #queueLock
+     */
+    private int inFlight;
 
     /**
      * Determines if this executor is currently present on the queue.
@@ -124,34 +150,77 @@ final class MainThreadExecutor implements IWorkMonitor
     {
         synchronized( queueLock )
         {
-            if( tasks.size() >= MAX_TASKS || !tasks.offer( runnable ) ) return false;
+            if( tasks.size() + inFlight >= MAX_TASKS || !tasks.offer( runnable ) ) return false;
             if( !onQueue && state == State.COOL ) MainThread.queue( this, true );
             return true;
         }
     }
 
-    void execute()
+    /**
+     * Run a batch of tasks from this executor's queue.
+     *
+     * We take up to {@link #BATCH_SIZE} tasks from the queue at once, and then run them until we exhaust either this
+     * executor's budget or the global deadline. Any tasks which were not run are returned to the front of the queue,
+     * even if one of the tasks throws.
+     *
+     * @param deadline The time (as given by {@link System#nanoTime()}) at which we must stop running tasks.
+     * @return The time taken to run these tasks.
+     */
+    long execute( long deadline )
     {
-        if( state != State.COOL ) return;
+        if( state != State.COOL ) return 0;
 
-        Runnable task;
+        int count = 0;
         synchronized( queueLock )
         {
-            task = tasks.poll();
+            Runnable task;
+            while( count < BATCH_SIZE && (task = tasks.poll()) != null ) batch[count++] = task;
+            inFlight = count;
         }
 
-        if( task != null ) task.run();
+        long remaining = currentTick == MainThread.currentTick() ? budget : MainThreadBudget.computer();
+        long start = System.nanoTime(), now = start;
+        int ran = 0;
+        try
+        {
+            while( ran < count )
+            {
+                Runnable task = batch[ran];
+                batch[ran++] = null;
+                task.run();
+
+                long taskEnd = System.nanoTime();
+                Tracking.addServerTiming( computer, taskEnd - now );
+                now = taskEnd;
+
+                if( now >= deadline || now - start >= remaining ) break;
+            }
+        }
+        finally
+        {
+            synchronized( queueLock )
+            {
+                for( int i = count - 1; i >= ran; i-- )
+                {
+                    tasks.addFirst( batch[i] );
+                    batch[i] = null;
+                }
+                inFlight = 0;
+            }
+        }
+
+        return now - start;
     }
 
     /**
-     * Update the time taken to run an {@link #enqueue(Runnable)} task.
+     * Update the time taken to run a batch of {@link #enqueue(Runnable)} tasks.
      *
-     * @param time The time some task took to run.
+     * @param time The time the batch took to run.
      * @return Whether this should be added back to the queue.
      */
     boolean afterExecute( long time )
     {
-        consumeTime( time );
+        spendTime( time );
 
         synchronized( queueLock )
         {
@@ -195,13 +264,17 @@ final class MainThreadExecutor implements IWorkMonitor
     private void consumeTime( long time )
     {
         Tracking.addServerTiming( computer, time );
+        spendTime( time );
+    }
 
+    private void spendTime( long time )
+    {
         // Reset the budget if moving onto a new tick. We know this is safe, as this will only have happened if
         // #tickCooling() isn't called, and so we didn't overrun the previous tick.
         if( currentTick != MainThread.currentTick() )
         {
             currentTick = MainThread.currentTick();
-            budget = ComputerCraft.maxMainComputerTime;
+            budget = MainThreadBudget.computer();
         }
 
         budget -= time;
@@ -215,7 +288,7 @@ final class MainThreadExecutor implements IWorkMonitor
     }
 
     /**
-     * Move this executor forward one tick, replenishing the budget by {@link ComputerCraft#maxMainComputerTime}.
+     * Move this executor forward one tick, replenishing the budget by {@link MainThreadBudget#computer()}.
      *
      * @return Whether this executor has cooled down, and so is safe to run again.
      */
@@ -223,8 +296,9 @@ final class MainThreadExecutor implements IWorkMonitor
     {
         state = State.COOLING;
         currentTick = MainThread.currentTick();
-        budget = Math.min( budget + ComputerCraft.maxMainComputerTime, ComputerCraft.maxMainComputerTime );
-        if( budget < ComputerCraft.maxMainComputerTime ) return false;
+        long computerBudget = MainThreadBudget.computer();
+        budget = Math.min( budget + computerBudget, computerBudget );
+        if( budget < computerBudget ) return false;
 
         state = State.COOL;
         synchronized( queueLock )
@@ -83,6 +83,18 @@ public final class TimeoutState
         return System.nanoTime() - currentStart;
     }
 
+    /**
+     * The point in time (relative to {@link System#nanoTime()}) at which this machine should be hard aborted, should it
+     * still be running. This is only meaningful while the timer is running.
+     *
+     * @return The hard abort deadline.
+     * @see #startTimer()
+     */
+    long hardAbortDeadline()
+    {
+        return cumulativeStart + TIMEOUT + ABORT_TIMEOUT;
+    }
+
     /**
      * Recompute the {@link #isSoftAborted()} and {@link #isPaused()} flags.
      */
@@ -24,6 +24,8 @@ import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.nio.file.AccessDeniedException;
 import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Function;
 import java.util.regex.Pattern;
 
@@ -324,8 +326,35 @@ public class FileSystem
         }
     }
 
+    /**
+     * A node in the tree of mounts, with one node for each directory which is, or contains, a mount point.
+     *
+     * This allows us to find the mount for a path by walking down the path's components, rather than checking every
+     * mount in turn.
+     */
+    private static final class MountNode
+    {
+        final Map<String, MountNode> children = new HashMap<>();
+
+        /**
+         * The mount at this location, or {@code null} if this node only exists to hold deeper mounts.
+         */
+        MountWrapper mount;
+
+        /**
+         * The names of every child which has a mount on it. These are added to the listing of this directory.
+         */
+        final List<String> childMounts = new ArrayList<>();
+    }
+
     private final FileSystemWrapperMount m_wrapper = new FileSystemWrapperMount( this );
-    private final Map<String, MountWrapper> m_mounts = new HashMap<>();
+    private final MountNode m_mounts = new MountNode();
+
+    /**
+     * Guards the mount tree and the contents of each mount. Queries may run in parallel, while changes to the mount
+     * tree and operations which modify files take exclusive access.
+     */
+    private final ReadWriteLock m_lock = new ReentrantReadWriteLock();
 
     private final HashMap<WeakReference<FileSystemWrapper<?>>, ChannelWrapper<?>> m_openFiles = new HashMap<>();
     private final ReferenceQueue<FileSystemWrapper<?>> m_openFileQueue = new ReferenceQueue<>();
@@ -351,7 +380,7 @@ public class FileSystem
         }
     }
 
-    public synchronized void mount( String label, String location, IMount mount ) throws FileSystemException
+    public void mount( String label, String location, IMount mount ) throws FileSystemException
     {
         if( mount == null ) throw new NullPointerException();
         location = sanitizePath( location );
@@ -362,7 +391,7 @@ public class FileSystem
         mount( new MountWrapper( label, location, mount ) );
     }
 
-    public synchronized void mountWritable( String label, String location, IWritableMount mount ) throws FileSystemException
+    public void mountWritable( String label, String location, IWritableMount mount ) throws FileSystemException
     {
         if( mount == null )
         {
@@ -376,20 +405,76 @@ public class FileSystem
         mount( new MountWrapper( label, location, mount ) );
     }
 
-    private synchronized void mount( MountWrapper wrapper )
+    private void mount( MountWrapper wrapper )
     {
-        String location = wrapper.getLocation();
-        m_mounts.remove( location );
-        m_mounts.put( location, wrapper );
+        m_lock.writeLock().lock();
+        try
+        {
+            String location = wrapper.getLocation();
+            MountNode parent = null, node = m_mounts;
+            String name = null;
+            if( !location.isEmpty() )
+            {
+                for( String part : location.split( "/" ) )
+                {
+                    parent = node;
+                    name = part;
+                    node = node.children.computeIfAbsent( part, x -> new MountNode() );
+                }
+            }
+
+            if( node.mount == null && parent != null ) parent.childMounts.add( name );
+            node.mount = wrapper;
+        }
+        finally
+        {
+            m_lock.writeLock().unlock();
+        }
     }
 
-    public synchronized void unmount( String path )
+    public void unmount( String path )
     {
-        path = sanitizePath( path );
-        m_mounts.remove( path );
+        m_lock.writeLock().lock();
+        try
+        {
+            path = sanitizePath( path );
+            unmount( m_mounts, path.isEmpty() ? new String[0] : path.split( "/" ), 0 );
+        }
+        finally
+        {
+            m_lock.writeLock().unlock();
+        }
     }
 
-    public synchronized String combine( String path, String childPath )
+    /**
+     * Remove a mount from the tree, pruning any nodes which no longer contain a mount.
+     *
+     * @param node  The current node.
+     * @param parts The components of the path to unmount.
+     * @param index The index of the component which names {@code node}'s child.
+     * @return Whether {@code node} is now empty and can be removed.
+     */
+    private static boolean unmount( MountNode node, String[] parts, int index )
+    {
+        if( index == parts.length )
+        {
+            node.mount = null;
+        }
+        else
+        {
+            String name = parts[index];
+            MountNode child = node.children.get( name );
+            if( child == null ) return false;
+
+            boolean mounted = child.mount != null;
+            if( unmount( child, parts, index + 1 ) ) node.children.remove( name );
+            if( mounted && child.mount == null ) node.childMounts.remove( name );
+        }
+
+        return node.mount == null && node.children.isEmpty();
+    }
+
+    public String combine( String path, String childPath )
     {
         path = sanitizePath( path, true );
         childPath = sanitizePath( childPath, true );
@@ -446,36 +531,47 @@ public class FileSystem
         }
     }
 
-    public synchronized long getSize( String path ) throws FileSystemException
+    public long getSize( String path ) throws FileSystemException
     {
-        path = sanitizePath( path );
-        MountWrapper mount = getMount( path );
-        return mount.getSize( path );
+        m_lock.readLock().lock();
+        try
+        {
+            path = sanitizePath( path );
+            MountWrapper mount = getMount( path );
+            return mount.getSize( path );
+        }
+        finally
+        {
+            m_lock.readLock().unlock();
+        }
     }
 
-    public synchronized String[] list( String path ) throws FileSystemException
+    public String[] list( String path ) throws FileSystemException
     {
-        path = sanitizePath( path );
-        MountWrapper mount = getMount( path );
-
-        // Gets a list of the files in the mount
-        List<String> list = new ArrayList<>();
-        mount.list( path, list );
-
-        // Add any mounts that are mounted at this location
-        for( MountWrapper otherMount : m_mounts.values() )
+        m_lock.readLock().lock();
+        try
         {
-            if( getDirectory( otherMount.getLocation() ).equals( path ) )
-            {
-                list.add( getName( otherMount.getLocation() ) );
-            }
+            path = sanitizePath( path );
+            MountWrapper mount = getMount( path );
+
+            // Gets a list of the files in the mount
+            List<String> list = new ArrayList<>();
+            mount.list( path, list );
+
+            // Add any mounts that are mounted at this location
+            MountNode node = getMountNode( path );
+            if( node != null ) list.addAll( node.childMounts );
+
+            // Return list
+            String[] array = new String[list.size()];
+            list.toArray( array );
+            Arrays.sort( array );
+            return array;
+        }
+        finally
+        {
+            m_lock.readLock().unlock();
         }
-
-        // Return list
-        String[] array = new String[list.size()];
-        list.toArray( array );
-        Arrays.sort( array );
-        return array;
     }
 
     private void findIn( String dir, List<String> matches, Pattern wildPattern ) throws FileSystemException
@@ -495,126 +591,198 @@ public class FileSystem
         }
     }
 
-    public synchronized String[] find( String wildPath ) throws FileSystemException
+    public String[] find( String wildPath ) throws FileSystemException
     {
-        // Match all the files on the system
-        wildPath = sanitizePath( wildPath, true );
-
-        // If we don't have a wildcard at all just check the file exists
-        int starIndex = wildPath.indexOf( '*' );
-        if( starIndex == -1 )
+        m_lock.readLock().lock();
+        try
         {
-            return exists( wildPath ) ? new String[] { wildPath } : new String[0];
-        }
+            // Match all the files on the system
+            wildPath = sanitizePath( wildPath, true );
 
-        // Find the all non-wildcarded directories. For instance foo/bar/baz* -> foo/bar
-        int prevDir = wildPath.substring( 0, starIndex ).lastIndexOf( '/' );
-        String startDir = prevDir == -1 ? "" : wildPath.substring( 0, prevDir );
+            // If we don't have a wildcard at all just check the file exists
+            int starIndex = wildPath.indexOf( '*' );
+            if( starIndex == -1 )
+            {
+                return exists( wildPath ) ? new String[] { wildPath } : new String[0];
+            }
 
-        // If this isn't a directory then just abort
-        if( !isDir( startDir ) ) return new String[0];
+            // Find the all non-wildcarded directories. For instance foo/bar/baz* -> foo/bar
+            int prevDir = wildPath.substring( 0, starIndex ).lastIndexOf( '/' );
+            String startDir = prevDir == -1 ? "" : wildPath.substring( 0, prevDir );
 
-        // Scan as normal, starting from this directory
-        Pattern wildPattern = Pattern.compile( "^\\Q" + wildPath.replaceAll( "\\*", "\\\\E[^\\\\/]*\\\\Q" ) + "\\E$" );
-        List<String> matches = new ArrayList<>();
-        findIn( startDir, matches, wildPattern );
+            // If this isn't a directory then just abort
+            if( !isDir( startDir ) ) return new String[0];
 
-        // Return matches
-        String[] array = new String[matches.size()];
-        matches.toArray( array );
-        return array;
-    }
+            // Scan as normal, starting from this directory
+            Pattern wildPattern = Pattern.compile( "^\\Q" + wildPath.replaceAll( "\\*", "\\\\E[^\\\\/]*\\\\Q" ) + "\\E$" );
+            List<String> matches = new ArrayList<>();
+            findIn( startDir, matches, wildPattern );
 
-    public synchronized boolean exists( String path ) throws FileSystemException
-    {
-        path = sanitizePath( path );
-        MountWrapper mount = getMount( path );
-        return mount.exists( path );
-    }
-
-    public synchronized boolean isDir( String path ) throws FileSystemException
-    {
-        path = sanitizePath( path );
-        MountWrapper mount = getMount( path );
-        return mount.isDirectory( path );
+            // Return matches
+            String[] array = new String[matches.size()];
+            matches.toArray( array );
+            return array;
+        }
+        finally
+        {
+            m_lock.readLock().unlock();
+        }
     }
 
-    public synchronized boolean isReadOnly( String path ) throws FileSystemException
+    public boolean exists( String path ) throws FileSystemException
     {
-        path = sanitizePath( path );
-        MountWrapper mount = getMount( path );
-        return mount.isReadOnly( path );
+        m_lock.readLock().lock();
+        try
+        {
+            path = sanitizePath( path );
+            MountWrapper mount = getMount( path );
+            return mount.exists( path );
+        }
+        finally
+        {
+            m_lock.readLock().unlock();
+        }
     }
 
-    public synchronized String getMountLabel( String path ) throws FileSystemException
+    public boolean isDir( String path ) throws FileSystemException
     {
-        path = sanitizePath( path );
-        MountWrapper mount = getMount( path );
-        return mount.getLabel();
+        m_lock.readLock().lock();
+        try
+        {
+            path = sanitizePath( path );
+            MountWrapper mount = getMount( path );
+            return mount.isDirectory( path );
+        }
+        finally
+        {
+            m_lock.readLock().unlock();
+        }
     }
 
-    public synchronized void makeDir( String path ) throws FileSystemException
+    public boolean isReadOnly( String path ) throws FileSystemException
     {
-        path = sanitizePath( path );
-        MountWrapper mount = getMount( path );
-        mount.makeDirectory( path );
+        m_lock.readLock().lock();
+        try
+        {
+            path = sanitizePath( path );
+            MountWrapper mount = getMount( path );
+            return mount.isReadOnly( path );
+        }
+        finally
+        {
+            m_lock.readLock().unlock();
+        }
     }
 
-    public synchronized void delete( String path ) throws FileSystemException
+    public String getMountLabel( String path ) throws FileSystemException
     {
-        path = sanitizePath( path );
-        MountWrapper mount = getMount( path );
-        mount.delete( path );
+        m_lock.readLock().lock();
+        try
+        {
+            path = sanitizePath( path );
+            MountWrapper mount = getMount( path );
+            return mount.getLabel();
+        }
+        finally
+        {
+            m_lock.readLock().unlock();
+        }
     }
 
-    public synchronized void move( String sourcePath, String destPath ) throws FileSystemException
+    public void makeDir( String path ) throws FileSystemException
     {
-        sourcePath = sanitizePath( sourcePath );
-        destPath = sanitizePath( destPath );
-        if( isReadOnly( sourcePath ) || isReadOnly( destPath ) )
+        m_lock.writeLock().lock();
+        try
         {
-            throw new FileSystemException( "Access denied" );
+            path = sanitizePath( path );
+            MountWrapper mount = getMount( path );
+            mount.makeDirectory( path );
         }
-        if( !exists( sourcePath ) )
+        finally
         {
-            throw new FileSystemException( "No such file" );
+            m_lock.writeLock().unlock();
         }
-        if( exists( destPath ) )
+    }
+
+    public void delete( String path ) throws FileSystemException
+    {
+        m_lock.writeLock().lock();
+        try
         {
-            throw new FileSystemException( "File exists" );
+            path = sanitizePath( path );
+            MountWrapper mount = getMount( path );
+            mount.delete( path );
         }
-        if( contains( sourcePath, destPath ) )
+        finally
         {
-            throw new FileSystemException( "Can't move a directory inside itself" );
+            m_lock.writeLock().unlock();
         }
-        copy( sourcePath, destPath );
-        delete( sourcePath );
     }
 
-    public synchronized void copy( String sourcePath, String destPath ) throws FileSystemException
+    public void move( String sourcePath, String destPath ) throws FileSystemException
     {
-        sourcePath = sanitizePath( sourcePath );
-        destPath = sanitizePath( destPath );
-        if( isReadOnly( destPath ) )
+        m_lock.writeLock().lock();
+        try
         {
-            throw new FileSystemException( "/" + destPath + ": Access denied" );
+            sourcePath = sanitizePath( sourcePath );
+            destPath = sanitizePath( destPath );
+            if( isReadOnly( sourcePath ) || isReadOnly( destPath ) )
+            {
+                throw new FileSystemException( "Access denied" );
+            }
+            if( !exists( sourcePath ) )
+            {
+                throw new FileSystemException( "No such file" );
+            }
+            if( exists( destPath ) )
+            {
+                throw new FileSystemException( "File exists" );
+            }
+            if( contains( sourcePath, destPath ) )
+            {
+                throw new FileSystemException( "Can't move a directory inside itself" );
+            }
+            copy( sourcePath, destPath );
+            delete( sourcePath );
         }
-        if( !exists( sourcePath ) )
+        finally
         {
-            throw new FileSystemException( "/" + sourcePath + ": No such file" );
+            m_lock.writeLock().unlock();
         }
-        if( exists( destPath ) )
+    }
+
+    public void copy( String sourcePath, String destPath ) throws FileSystemException
+    {
+        m_lock.writeLock().lock();
+        try
         {
-            throw new FileSystemException( "/" + destPath + ": File exists" );
+            sourcePath = sanitizePath( sourcePath );
+            destPath = sanitizePath( destPath );
+            if( isReadOnly( destPath ) )
+            {
+                throw new FileSystemException( "/" + destPath + ": Access denied" );
+            }
+            if( !exists( sourcePath ) )
+            {
+                throw new FileSystemException( "/" + sourcePath + ": No such file" );
+            }
+            if( exists( destPath ) )
+            {
+                throw new FileSystemException( "/" + destPath + ": File exists" );
+            }
+            if( contains( sourcePath, destPath ) )
+            {
+                throw new FileSystemException( "/" + sourcePath + ": Can't copy a directory inside itself" );
+            }
+            copyRecursive( sourcePath, getMount( sourcePath ), destPath, getMount( destPath ) );
         }
-        if( contains( sourcePath, destPath ) )
+        finally
         {
-            throw new FileSystemException( "/" + sourcePath + ": Can't copy a directory inside itself" );
+            m_lock.writeLock().unlock();
         }
-        copyRecursive( sourcePath, getMount( sourcePath ), destPath, getMount( destPath ) );
     }
 
-    private synchronized void copyRecursive( String sourcePath, MountWrapper sourceMount, String destinationPath, MountWrapper destinationMount ) throws FileSystemException
+    private void copyRecursive( String sourcePath, MountWrapper sourceMount, String destinationPath, MountWrapper destinationMount ) throws FileSystemException
     {
         if( !sourceMount.exists( sourcePath ) )
         {
@@ -671,7 +839,7 @@ public class FileSystem
         }
     }
 
-    private synchronized <T extends Closeable> FileSystemWrapper<T> openFile( @Nonnull Channel channel, @Nonnull T file ) throws FileSystemException
+    private <T extends Closeable> FileSystemWrapper<T> openFile( @Nonnull Channel channel, @Nonnull T file ) throws FileSystemException
     {
         synchronized( m_openFiles )
         {
@@ -690,7 +858,7 @@ public class FileSystem
         }
     }
 
-    synchronized void removeFile( FileSystemWrapper<?> handle )
+    void removeFile( FileSystemWrapper<?> handle )
     {
         synchronized( m_openFiles )
         {
@@ -698,60 +866,88 @@ public class FileSystem
         }
     }
 
-    public synchronized <T extends Closeable> FileSystemWrapper<T> openForRead( String path, Function<ReadableByteChannel, T> open ) throws FileSystemException
+    public <T extends Closeable> FileSystemWrapper<T> openForRead( String path, Function<ReadableByteChannel, T> open ) throws FileSystemException
     {
-        cleanup();
+        m_lock.readLock().lock();
+        try
+        {
+            cleanup();
 
-        path = sanitizePath( path );
-        MountWrapper mount = getMount( path );
-        ReadableByteChannel channel = mount.openForRead( path );
-        if( channel != null )
+            path = sanitizePath( path );
+            MountWrapper mount = getMount( path );
+            ReadableByteChannel channel = mount.openForRead( path );
+            if( channel != null )
+            {
+                return openFile( channel, open.apply( channel ) );
+            }
+            return null;
+        }
+        finally
         {
-            return openFile( channel, open.apply( channel ) );
+            m_lock.readLock().unlock();
         }
-        return null;
     }
 
-    public synchronized <T extends Closeable> FileSystemWrapper<T> openForWrite( String path, boolean append, Function<WritableByteChannel, T> open ) throws FileSystemException
+    public <T extends Closeable> FileSystemWrapper<T> openForWrite( String path, boolean append, Function<WritableByteChannel, T> open ) throws FileSystemException
     {
-        cleanup();
+        m_lock.writeLock().lock();
+        try
+        {
+            cleanup();
 
-        path = sanitizePath( path );
-        MountWrapper mount = getMount( path );
-        WritableByteChannel channel = append ? mount.openForAppend( path ) : mount.openForWrite( path );
-        if( channel != null )
+            path = sanitizePath( path );
+            MountWrapper mount = getMount( path );
+            WritableByteChannel channel = append ? mount.openForAppend( path ) : mount.openForWrite( path );
+            if( channel != null )
+            {
+                return openFile( channel, open.apply( channel ) );
+            }
+            return null;
+        }
+        finally
         {
-            return openFile( channel, open.apply( channel ) );
+            m_lock.writeLock().unlock();
         }
-        return null;
     }
 
     public long getFreeSpace( String path ) throws FileSystemException
     {
-        path = sanitizePath( path );
-        MountWrapper mount = getMount( path );
-        return mount.getFreeSpace();
+        m_lock.readLock().lock();
+        try
+        {
+            path = sanitizePath( path );
+            MountWrapper mount = getMount( path );
+            return mount.getFreeSpace();
+        }
+        finally
+        {
+            m_lock.readLock().unlock();
+        }
     }
 
     private MountWrapper getMount( String path ) throws FileSystemException
     {
-        // Return the deepest mount that contains a given path
-        Iterator<MountWrapper> it = m_mounts.values().iterator();
+        // Return the deepest mount that contains a given path. Paths above the root are never contained in a mount.
         MountWrapper match = null;
-        int matchLength = 999;
-        while( it.hasNext() )
+        if( !path.equals( ".." ) && !path.startsWith( "../" ) )
         {
-            MountWrapper mount = it.next();
-            if( contains( mount.getLocation(), path ) )
+            MountNode node = m_mounts;
+            match = node.mount;
+
+            int start = 0, length = path.length();
+            while( start < length )
             {
-                int len = toLocal( path, mount.getLocation() ).length();
-                if( match == null || len < matchLength )
-                {
-                    match = mount;
-                    matchLength = len;
-                }
+                int end = path.indexOf( '/', start );
+                if( end < 0 ) end = length;
+
+                node = node.children.get( path.substring( start, end ) );
+                if( node == null ) break;
+                if( node.mount != null ) match = node.mount;
+
+                start = end + 1;
             }
         }
+
         if( match == null )
         {
             throw new FileSystemException( "/" + path + ": Invalid Path" );
@@ -759,6 +955,25 @@ public class FileSystem
         return match;
     }
 
+    /**
+     * Find the node in the mount tree for a given path.
+     *
+     * @param path The sanitised path to find.
+     * @return The node for this path, or {@code null} if no mount is at or below it.
+     */
+    private MountNode getMountNode( String path )
+    {
+        MountNode node = m_mounts;
+        if( path.isEmpty() ) return node;
+
+        for( String part : path.split( "/" ) )
+        {
+            node = node.children.get( part );
+            if( node == null ) return null;
+        }
+        return node;
+    }
+
     public IFileSystem getMountWrapper()
     {
         return m_wrapper;
@@ -769,87 +984,105 @@ public class FileSystem
         return sanitizePath( path, false );
     }
 
-    private static final Pattern threeDotsPattern = Pattern.compile( "^\\.{3,}$" );
-
-    private static String sanitizePath( String path, boolean allowWildcards )
+    /**
+     * Normalise a path, removing illegal characters, redundant separators and {@code .} components, and resolving
+     * {@code ..} components where possible.
+     *
+     * This is called on almost every file system operation, and so is written as a single pass over the path, building
+     * the result in place rather than splitting the path into components.
+     *
+     * @param path           The path to normalise.
+     * @param allowWildcards Whether {@code *} should be preserved, rather than removed.
+     * @return The normalised path.
+     */
+    static String sanitizePath( String path, boolean allowWildcards )
     {
-        // Allow windowsy slashes
-        path = path.replace( '\\', '/' );
+        int length = path.length();
+        StringBuilder result = new StringBuilder( length );
 
-        // Clean the path or illegal characters.
-        final char[] specialChars = new char[] {
-            '"', ':', '<', '>', '?', '|', // Sorted by ascii value (important)
-        };
+        // The length of the result before each component was added, allowing us to pop components when we hit a "..".
+        // The first "parents" components are always "..", as these cannot be cancelled out.
+        int[] starts = new int[8];
+        int depth = 0, parents = 0;
 
-        StringBuilder cleanName = new StringBuilder();
-        for( int i = 0; i < path.length(); i++ )
+        int i = 0;
+        while( i <= length )
         {
-            char c = path.charAt( i );
-            if( c >= 32 && Arrays.binarySearch( specialChars, c ) < 0 && (allowWildcards || c != '*') )
+            int before = result.length();
+            if( before > 0 ) result.append( '/' );
+
+            // Copy the next component into the result, skipping illegal characters. Windowsy slashes are allowed.
+            int start = result.length();
+            for( ; i < length; i++ )
             {
-                cleanName.append( c );
+                char c = path.charAt( i );
+                if( c == '/' || c == '\\' ) break;
+                if( isValidChar( c, allowWildcards ) ) result.append( c );
             }
-        }
-        path = cleanName.toString();
+            i++;
 
-        // Collapse the string into its component parts, removing ..'s
-        String[] parts = path.split( "/" );
-        Stack<String> outputParts = new Stack<>();
-        for( String part : parts )
-        {
-            if( part.isEmpty() || part.equals( "." ) || threeDotsPattern.matcher( part ).matches() )
+            int partLength = result.length() - start;
+            if( partLength == 0 || (partLength != 2 && isDots( result, start )) )
             {
-                // . is redundant
-                // ... and more are treated as .
-                continue;
+                // . is redundant and ... and more are treated as .
+                result.setLength( before );
             }
-
-            if( part.equals( ".." ) )
+            else if( partLength == 2 && result.charAt( start ) == '.' && result.charAt( start + 1 ) == '.' )
             {
-                // .. can cancel out the last folder entered
-                if( !outputParts.empty() )
+                if( depth > parents )
                 {
-                    String top = outputParts.peek();
-                    if( !top.equals( ".." ) )
-                    {
-                        outputParts.pop();
-                    }
-                    else
-                    {
-                        outputParts.push( ".." );
-                    }
+                    // .. can cancel out the last folder entered
+                    result.setLength( starts[--depth] );
                 }
                 else
                 {
-                    outputParts.push( ".." );
+                    starts = push( starts, depth++, before );
+                    parents++;
                 }
             }
-            else if( part.length() >= 255 )
-            {
-                // If part length > 255 and it is the last part
-                outputParts.push( part.substring( 0, 255 ) );
-            }
             else
             {
-                // Anything else we add to the stack
-                outputParts.push( part );
+                if( partLength > 255 ) result.setLength( start + 255 );
+                starts = push( starts, depth++, before );
             }
         }
 
-        // Recombine the output parts into a new string
-        StringBuilder result = new StringBuilder();
-        Iterator<String> it = outputParts.iterator();
-        while( it.hasNext() )
+        return result.length() == length && path.contentEquals( result ) ? path : result.toString();
+    }
+
+    private static boolean isValidChar( char c, boolean allowWildcards )
+    {
+        if( c < 32 ) return false;
+        switch( c )
+        {
+            case '"':
+            case ':':
+            case '<':
+            case '>':
+            case '?':
+            case '|':
+                return false;
+            case '*':
+                return allowWildcards;
+            default:
+                return true;
+        }
+    }
+
+    private static boolean isDots( CharSequence path, int start )
+    {
+        for( int i = start; i < path.length(); i++ )
         {
-            String part = it.next();
-            result.append( part );
-            if( it.hasNext() )
-            {
-                result.append( '/' );
-            }
+            if( path.charAt( i ) != '.' ) return false;
         }
+        return true;
+    }
 
-        return result.toString();
+    private static int[] push( int[] stack, int index, int value )
+    {
+        if( index == stack.length ) stack = Arrays.copyOf( stack, stack.length * 2 );
+        stack[index] = value;
+        return stack;
     }
 
     public static boolean contains( String pathA, String pathB )
@@ -0,0 +1,44 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2020. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.lua;
+
+import dan200.computercraft.api.lua.ILuaContext;
+import dan200.computercraft.api.lua.ILuaObject;
+import dan200.computercraft.api.lua.LuaException;
+import dan200.computercraft.api.lua.MethodResult;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * An {@link ILuaObject} whose methods are declared with {@link LuaFunction}.
+ *
+ * {@link CobaltLuaMachine} calls these methods directly through {@link LuaMethods}, without converting arguments to an
+ * {@code Object[]}. The implementations of {@link ILuaObject}'s methods here are only used by other callers.
+ */
+public interface AnnotatedLuaObject extends ILuaObject
+{
+    @Nonnull
+    @Override
+    default String[] getMethodNames()
+    {
+        return LuaMethods.of( getClass() ).getNames();
+    }
+
+    @Nullable
+    @Override
+    default Object[] callMethod( @Nonnull ILuaContext context, int method, @Nonnull Object[] arguments ) throws LuaException, InterruptedException
+    {
+        return callMethodResult( context, method, arguments ).evaluate( context );
+    }
+
+    @Nonnull
+    @Override
+    default MethodResult callMethodResult( @Nonnull ILuaContext context, int method, @Nonnull Object[] arguments ) throws LuaException, InterruptedException
+    {
+        return LuaMethods.of( getClass() ).call( this, context, method, new ObjectArguments( arguments ) );
+    }
+}
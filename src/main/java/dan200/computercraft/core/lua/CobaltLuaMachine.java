@@ -10,17 +10,18 @@ import dan200.computercraft.api.lua.*;
 import dan200.computercraft.core.computer.Computer;
 import dan200.computercraft.core.computer.MainThread;
 import dan200.computercraft.core.computer.TimeoutState;
+import dan200.computercraft.core.tracking.LuaProfiler;
 import dan200.computercraft.core.tracking.Tracking;
 import dan200.computercraft.core.tracking.TrackingField;
 import dan200.computercraft.shared.util.ThreadUtils;
 import org.squiddev.cobalt.*;
 import org.squiddev.cobalt.compiler.CompileException;
-import org.squiddev.cobalt.compiler.LoadState;
 import org.squiddev.cobalt.debug.DebugFrame;
 import org.squiddev.cobalt.debug.DebugHandler;
 import org.squiddev.cobalt.debug.DebugState;
+import org.squiddev.cobalt.function.LuaClosure;
 import org.squiddev.cobalt.function.LuaFunction;
-import org.squiddev.cobalt.function.VarArgFunction;
+import org.squiddev.cobalt.function.ResumableVarArgFunction;
 import org.squiddev.cobalt.lib.*;
 import org.squiddev.cobalt.lib.platform.VoidResourceManipulator;
 
@@ -28,9 +29,11 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.io.InputStream;
 import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.squiddev.cobalt.ValueFactory.valueOf;
 import static org.squiddev.cobalt.ValueFactory.varargsOf;
@@ -39,6 +42,10 @@ import static org.squiddev.cobalt.debug.DebugFrame.FLAG_HOOKYIELD;
 
 public class CobaltLuaMachine implements ILuaMachine
 {
+    /**
+     * The threads which Lua coroutines run on. Idle threads are kept around for reuse, and the maximum size is bounded
+     * by {@link ComputerCraft#maxCoroutines}. Once this limit is reached, creating a new coroutine will error.
+     */
     private static final ThreadPoolExecutor COROUTINES = new ThreadPoolExecutor(
         0, Integer.MAX_VALUE,
         5L, TimeUnit.MINUTES,
@@ -46,6 +53,18 @@ public class CobaltLuaMachine implements ILuaMachine
         ThreadUtils.factory( "Coroutine" )
     );
 
+    /**
+     * Boxed copies of small integers. Lua numbers are passed to Java as {@link Double}s, so we share these rather than
+     * allocating a new one for every slot, side or colour.
+     */
+    private static final int DOUBLE_CACHE_MIN = -128, DOUBLE_CACHE_MAX = 1024;
+    private static final Double[] DOUBLE_CACHE = new Double[DOUBLE_CACHE_MAX - DOUBLE_CACHE_MIN + 1];
+
+    static
+    {
+        for( int i = 0; i < DOUBLE_CACHE.length; i++ ) DOUBLE_CACHE[i] = (double) (i + DOUBLE_CACHE_MIN);
+    }
+
     private final Computer m_computer;
     private final TimeoutState timeout;
     private final TimeoutDebugHandler debug;
@@ -55,7 +74,13 @@ public class CobaltLuaMachine implements ILuaMachine
     private LuaTable m_globals;
 
     private LuaThread m_mainRoutine = null;
-    private String m_eventFilter = null;
+
+    /**
+     * The number of coroutines belonging to this machine which are currently running.
+     */
+    private final AtomicInteger liveCoroutines = new AtomicInteger();
+    private final AtomicInteger peakCoroutines = new AtomicInteger();
+    private volatile String m_eventFilter = null;
 
     public CobaltLuaMachine( Computer computer, TimeoutState timeout )
     {
@@ -66,20 +91,9 @@ public class CobaltLuaMachine implements ILuaMachine
         // Create an environment to run in
         LuaState state = m_state = LuaState.builder()
             .resourceManipulator( new VoidResourceManipulator() )
+            .compiler( PrototypeCache.INSTANCE )
             .debug( debug )
-            .coroutineExecutor( command -> {
-                Tracking.addValue( m_computer, TrackingField.COROUTINES_CREATED, 1 );
-                COROUTINES.execute( () -> {
-                    try
-                    {
-                        command.run();
-                    }
-                    finally
-                    {
-                        Tracking.addValue( m_computer, TrackingField.COROUTINES_DISPOSED, 1 );
-                    }
-                } );
-            } )
+            .coroutineExecutor( this::executeCoroutine )
             .build();
 
         m_globals = new LuaTable();
@@ -110,6 +124,61 @@ public class CobaltLuaMachine implements ILuaMachine
         }
     }
 
+    /**
+     * Start a new coroutine on {@link #COROUTINES}.
+     *
+     * @param command The coroutine to run.
+     * @throws RejectedExecutionException If this machine or the server as a whole has too many coroutines. This will
+     *                                    be converted into a Lua error.
+     */
+    private void executeCoroutine( Runnable command )
+    {
+        int limit = ComputerCraft.maxCoroutinesPerComputer;
+        int live = liveCoroutines.incrementAndGet();
+        if( limit > 0 && live > limit )
+        {
+            liveCoroutines.decrementAndGet();
+            throw new RejectedExecutionException( "Too many coroutines (limit is " + limit + ")" );
+        }
+
+        int maxThreads = ComputerCraft.maxCoroutines > 0 ? ComputerCraft.maxCoroutines : Integer.MAX_VALUE;
+        if( COROUTINES.getMaximumPoolSize() != maxThreads ) COROUTINES.setMaximumPoolSize( maxThreads );
+
+        try
+        {
+            COROUTINES.execute( () -> {
+                try
+                {
+                    command.run();
+                }
+                finally
+                {
+                    liveCoroutines.decrementAndGet();
+                    Tracking.addValue( m_computer, TrackingField.COROUTINES_DISPOSED, 1 );
+                    Tracking.addValue( m_computer, TrackingField.COROUTINES_LIVE, -1 );
+                }
+            } );
+        }
+        catch( RejectedExecutionException e )
+        {
+            liveCoroutines.decrementAndGet();
+            throw new RejectedExecutionException( "Too many coroutines running on the server", e );
+        }
+
+        Tracking.addValue( m_computer, TrackingField.COROUTINES_CREATED, 1 );
+        Tracking.addValue( m_computer, TrackingField.COROUTINES_LIVE, 1 );
+
+        int peak;
+        while( live > (peak = peakCoroutines.get()) )
+        {
+            if( peakCoroutines.compareAndSet( peak, live ) )
+            {
+                Tracking.addValue( m_computer, TrackingField.COROUTINES_PEAK, live - peak );
+                break;
+            }
+        }
+    }
+
     @Override
     public void addAPI( @Nonnull ILuaAPI api )
     {
@@ -130,7 +199,7 @@ public class CobaltLuaMachine implements ILuaMachine
 
         try
         {
-            LuaFunction value = LoadState.load( m_state, bios, "@bios.lua", m_globals );
+            LuaFunction value = PrototypeCache.INSTANCE.load( bios, valueOf( "@bios.lua" ), m_globals, true );
             m_mainRoutine = new LuaThread( m_state, value, m_globals );
             return MachineResult.OK;
         }
@@ -201,6 +270,22 @@ public class CobaltLuaMachine implements ILuaMachine
             ComputerCraft.log.warn( "Top level coroutine errored", e );
             return MachineResult.error( e );
         }
+        finally
+        {
+            long instructions = debug.instructions;
+            if( instructions > 0 )
+            {
+                debug.instructions = 0;
+                Tracking.addValue( m_computer, TrackingField.INSTRUCTIONS, instructions );
+            }
+        }
+    }
+
+    @Nullable
+    @Override
+    public String getEventFilter()
+    {
+        return m_eventFilter;
     }
 
     @Override
@@ -217,46 +302,15 @@ public class CobaltLuaMachine implements ILuaMachine
 
     private LuaTable wrapLuaObject( ILuaObject object )
     {
-        LuaTable table = new LuaTable();
-        String[] methods = object.getMethodNames();
-        for( int i = 0; i < methods.length; i++ )
+        MethodTable methods = MethodTable.get( object );
+        LuaMethods direct = object instanceof AnnotatedLuaObject ? LuaMethods.of( object.getClass() ) : null;
+        LuaTable table = new LuaTable( 0, methods.size() );
+
+        // Each method still needs its own function: they're called as handle.read(), so the receiver is never passed
+        // in, and Cobalt functions have no cheap per-object binding which doesn't change how the table behaves.
+        for( int i = 0; i < methods.size(); i++ )
         {
-            if( methods[i] != null )
-            {
-                final int method = i;
-                final ILuaObject apiObject = object;
-                final String methodName = methods[i];
-                table.rawset( methodName, new VarArgFunction()
-                {
-                    @Override
-                    public Varargs invoke( final LuaState state, Varargs args ) throws LuaError
-                    {
-                        Object[] arguments = toObjects( args, 1 );
-                        Object[] results;
-                        try
-                        {
-                            results = apiObject.callMethod( context, method, arguments );
-                        }
-                        catch( InterruptedException e )
-                        {
-                            throw new InterruptedError( e );
-                        }
-                        catch( LuaException e )
-                        {
-                            throw new LuaError( e.getMessage(), e.getLevel() );
-                        }
-                        catch( Throwable t )
-                        {
-                            if( ComputerCraft.logPeripheralErrors )
-                            {
-                                ComputerCraft.log.error( "Error calling " + methodName + " on " + apiObject, t );
-                            }
-                            throw new LuaError( "Java Exception Thrown: " + t, 0 );
-                        }
-                        return toValues( results );
-                    }
-                } );
-            }
+            table.rawset( methods.getKey( i ), new ResultFunction( object, direct, methods.getMethod( i ), methods.getName( i ) ) );
         }
         return table;
     }
@@ -265,6 +319,15 @@ public class CobaltLuaMachine implements ILuaMachine
     private LuaValue toValue( @Nullable Object object, @Nonnull Map<Object, LuaValue> values )
     {
         if( object == null ) return Constants.NIL;
+        if( object instanceof Integer || object instanceof Short || object instanceof Byte )
+        {
+            return valueOf( ((Number) object).intValue() );
+        }
+        if( object instanceof Long )
+        {
+            long value = (Long) object;
+            if( value == (int) value ) return valueOf( (int) value );
+        }
         if( object instanceof Number ) return valueOf( ((Number) object).doubleValue() );
         if( object instanceof Boolean ) return valueOf( (Boolean) object );
         if( object instanceof String ) return valueOf( object.toString() );
@@ -273,6 +336,11 @@ public class CobaltLuaMachine implements ILuaMachine
             byte[] b = (byte[]) object;
             return valueOf( Arrays.copyOf( b, b.length ) );
         }
+        if( object instanceof LuaBytes )
+        {
+            LuaBytes bytes = (LuaBytes) object;
+            return LuaString.valueOf( bytes.bytes(), bytes.offset(), bytes.length() );
+        }
 
         LuaValue result = values.get( object );
         if( result != null ) return result;
@@ -338,7 +406,7 @@ public class CobaltLuaMachine implements ILuaMachine
         return varargsOf( values );
     }
 
-    private static Object toObject( LuaValue value, Map<LuaValue, Object> objects )
+    static Object toObject( LuaValue value, Map<LuaValue, Object> objects )
     {
         switch( value.type() )
         {
@@ -346,6 +414,12 @@ public class CobaltLuaMachine implements ILuaMachine
             case Constants.TNONE:
                 return null;
             case Constants.TINT:
+            {
+                int number = value.toInteger();
+                return number >= DOUBLE_CACHE_MIN && number <= DOUBLE_CACHE_MAX
+                    ? DOUBLE_CACHE[number - DOUBLE_CACHE_MIN]
+                    : Double.valueOf( number );
+            }
             case Constants.TNUMBER:
                 return value.toDouble();
             case Constants.TBOOLEAN:
@@ -403,7 +477,7 @@ public class CobaltLuaMachine implements ILuaMachine
         }
     }
 
-    private static Object[] toObjects( Varargs values, int startIdx )
+    static Object[] toObjects( Varargs values, int startIdx )
     {
         int count = values.count();
         Object[] objects = new Object[count - startIdx + 1];
@@ -421,10 +495,20 @@ public class CobaltLuaMachine implements ILuaMachine
      */
     private class TimeoutDebugHandler extends DebugHandler
     {
+        /**
+         * The maximum number of frames to include in a profiler sample.
+         */
+        private static final int MAX_PROFILE_DEPTH = 64;
+
         private final TimeoutState timeout;
         private int count = 0;
         boolean thrownSoftAbort;
 
+        /**
+         * The number of instructions executed since we last reported to {@link Tracking}.
+         */
+        long instructions;
+
         private boolean isPaused;
         private int oldFlags;
         private boolean oldInHook;
@@ -444,6 +528,8 @@ public class CobaltLuaMachine implements ILuaMachine
             // We check our current pause/abort state every 128 instructions.
             if( (count = (count + 1) & 127) == 0 )
             {
+                instructions += 128;
+
                 // If we've been hard aborted or closed then abort.
                 if( timeout.isHardAborted() || m_state == null ) throw HardAbortError.INSTANCE;
 
@@ -462,11 +548,56 @@ public class CobaltLuaMachine implements ILuaMachine
                 }
 
                 handleSoftAbort();
+
+                LuaProfiler profiler = m_computer.getProfiler();
+                if( profiler != null && profiler.shouldSample() ) profiler.addSample( getStack( ds ) );
             }
 
             super.onInstruction( ds, di, pc );
         }
 
+        /**
+         * Get the current call stack, in the collapsed stack format used by {@link LuaProfiler}.
+         *
+         * @param ds The current debug state.
+         * @return The current stack, starting from the outermost frame.
+         */
+        private String getStack( DebugState ds )
+        {
+            List<DebugFrame> frames = new ArrayList<>();
+            for( int level = 0; level < MAX_PROFILE_DEPTH; level++ )
+            {
+                DebugFrame frame = ds.getFrame( level );
+                if( frame == null ) break;
+                frames.add( frame );
+            }
+
+            StringBuilder stack = new StringBuilder();
+            for( int i = frames.size() - 1; i >= 0; i-- )
+            {
+                if( stack.length() > 0 ) stack.append( ';' );
+
+                DebugFrame frame = frames.get( i );
+                LuaClosure closure = frame.closure;
+                if( closure == null )
+                {
+                    stack.append( "[java]" );
+                    continue;
+                }
+
+                Prototype prototype = closure.getPrototype();
+                String source = prototype.source.toString();
+                if( source.startsWith( "@" ) || source.startsWith( "=" ) ) source = source.substring( 1 );
+
+                int[] lines = prototype.lineinfo;
+                int line = lines != null && frame.pc >= 0 && frame.pc < lines.length ? lines[frame.pc] : -1;
+
+                // Spaces and semicolons delimit the collapsed stack format, so strip them from chunk names.
+                stack.append( source.replace( ' ', '_' ).replace( ';', '_' ) ).append( ':' ).append( line );
+            }
+            return stack.toString();
+        }
+
         @Override
         public void poll() throws LuaError
         {
@@ -497,7 +628,7 @@ public class CobaltLuaMachine implements ILuaMachine
         }
     }
 
-    private class CobaltLuaContext implements ILuaContext
+    class CobaltLuaContext implements ILuaContext
     {
         @Nonnull
         @Override
@@ -563,40 +694,157 @@ public class CobaltLuaMachine implements ILuaMachine
         @Override
         public Object[] executeMainThreadTask( @Nonnull final ILuaTask task ) throws LuaException, InterruptedException
         {
-            // Issue task
-            final long taskID = issueMainThreadTask( task );
+            return executeTask( task ).evaluate( this );
+        }
 
-            // Wait for response
-            while( true )
-            {
-                Object[] response = pullEvent( "task_complete" );
-                if( response.length >= 3 && response[1] instanceof Number && response[2] instanceof Boolean )
+        /**
+         * Queue a task on the main thread, returning a method result which waits for it to complete.
+         *
+         * Unlike {@link #issueMainThreadTask(ILuaTask)}, the result is passed directly to the {@link TaskCallback}
+         * rather than read back from the {@code task_complete} event. The event is still queued with its usual
+         * arguments, as programs may pull it themselves, but bypasses the event queue's limit.
+         *
+         * @param task The task to execute.
+         * @return The method result which waits for this task.
+         * @throws LuaException If the task could not be queued.
+         */
+        MethodResult executeTask( @Nonnull final ILuaTask task ) throws LuaException
+        {
+            final long taskID = MainThread.getUniqueTaskID();
+            final TaskCallback callback = new TaskCallback( taskID );
+            final Runnable iTask = () -> {
+                Object[] eventArguments;
+                try
                 {
-                    if( ((Number) response[1]).intValue() == taskID )
+                    Object[] results = task.execute();
+                    callback.complete( results );
+
+                    if( results != null )
+                    {
+                        eventArguments = new Object[results.length + 2];
+                        eventArguments[0] = taskID;
+                        eventArguments[1] = true;
+                        System.arraycopy( results, 0, eventArguments, 2, results.length );
+                    }
+                    else
                     {
-                        Object[] returnValues = new Object[response.length - 3];
-                        if( (Boolean) response[2] )
-                        {
-                            // Extract the return values from the event and return them
-                            System.arraycopy( response, 3, returnValues, 0, returnValues.length );
-                            return returnValues;
-                        }
-                        else
-                        {
-                            // Extract the error message from the event and raise it
-                            if( response.length >= 4 && response[3] instanceof String )
-                            {
-                                throw new LuaException( (String) response[3] );
-                            }
-                            else
-                            {
-                                throw new LuaException();
-                            }
-                        }
+                        eventArguments = new Object[] { taskID, true };
                     }
                 }
+                catch( LuaException e )
+                {
+                    callback.fail( e.getMessage() );
+                    eventArguments = new Object[] { taskID, false, e.getMessage() };
+                }
+                catch( Throwable t )
+                {
+                    if( ComputerCraft.logPeripheralErrors ) ComputerCraft.log.error( "Error running task", t );
+                    String message = "Java Exception Thrown: " + t;
+                    callback.fail( message );
+                    eventArguments = new Object[] { taskID, false, message };
+                }
+
+                m_computer.queueWakeup( "task_complete", eventArguments );
+            };
+
+            if( !m_computer.queueMainThread( iTask ) ) throw new LuaException( "Task limit exceeded" );
+            return callback.pull;
+        }
+    }
+
+    /**
+     * A Lua function which calls a method on an {@link ILuaObject}. If the method returns a {@link MethodResult} with a
+     * callback, we yield from the current coroutine, and invoke the callback when resumed. This means methods may wait
+     * for events without blocking the computer thread.
+     *
+     * Methods on an {@link AnnotatedLuaObject} are called directly through {@link LuaMethods}, reading arguments from
+     * the Lua values rather than converting them all to Java objects first.
+     */
+    private class ResultFunction extends ResumableVarArgFunction<Container>
+    {
+        private final ILuaObject object;
+        private final LuaMethods direct;
+        private final int method;
+
+        ResultFunction( ILuaObject object, @Nullable LuaMethods direct, int method, String methodName )
+        {
+            this.object = object;
+            this.direct = direct;
+            this.method = method;
+            name = methodName;
+        }
+
+        @Override
+        protected Varargs invoke( LuaState state, DebugFrame debugFrame, Varargs args ) throws LuaError, UnwindThrowable
+        {
+            MethodResult result;
+            try
+            {
+                result = direct != null
+                    ? direct.call( object, context, method, new VarargArguments( args ) )
+                    : object.callMethodResult( context, method, toObjects( args, 1 ) );
             }
+            catch( InterruptedException e )
+            {
+                throw new InterruptedError( e );
+            }
+            catch( Throwable t )
+            {
+                throw wrapError( t );
+            }
+
+            ILuaCallback callback = result.getCallback();
+            Varargs values = toValues( result.getResult() );
+            if( callback == null ) return values;
 
+            debugFrame.state = new Container( callback );
+            return LuaThread.yield( state, values );
+        }
+
+        @Override
+        protected Varargs resumeThis( LuaState state, Container container, Varargs args ) throws LuaError, UnwindThrowable
+        {
+            MethodResult result;
+            try
+            {
+                result = container.callback.resume( toObjects( args, 1 ) );
+            }
+            catch( Throwable t )
+            {
+                throw wrapError( t );
+            }
+
+            ILuaCallback callback = result.getCallback();
+            Varargs values = toValues( result.getResult() );
+            if( callback == null ) return values;
+
+            container.callback = callback;
+            return LuaThread.yield( state, values );
+        }
+
+        private LuaError wrapError( Throwable t )
+        {
+            if( t instanceof LuaException )
+            {
+                LuaException e = (LuaException) t;
+                return new LuaError( e.getMessage(), e.getLevel() );
+            }
+
+            if( ComputerCraft.logPeripheralErrors )
+            {
+                ComputerCraft.log.error( "Error calling " + name + " on " + object, t );
+            }
+            return new LuaError( "Java Exception Thrown: " + t, 0 );
+        }
+    }
+
+    private static final class Container
+    {
+        ILuaCallback callback;
+
+        Container( ILuaCallback callback )
+        {
+            this.callback = callback;
         }
     }
 
@@ -0,0 +1,128 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2020. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.lua;
+
+import dan200.computercraft.api.lua.ArgumentHelper;
+import dan200.computercraft.api.lua.LuaException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Map;
+
+/**
+ * The arguments passed to a {@link LuaFunction}.
+ *
+ * This mirrors {@link ArgumentHelper}, but allows reading arguments directly from the Lua VM's values, rather than
+ * converting every argument to a Java object first. Indices start from 0, and error messages are the same as those
+ * produced by {@link ArgumentHelper}.
+ *
+ * @see ObjectArguments
+ * @see VarargArguments
+ */
+public interface IArguments
+{
+    /**
+     * Get the number of arguments passed to this function.
+     *
+     * @return The number of arguments.
+     */
+    int count();
+
+    /**
+     * Get an argument as a Java object, using the same conversion rules as
+     * {@link dan200.computercraft.api.lua.ILuaObject#callMethod}.
+     *
+     * @param index The argument number.
+     * @return The argument's value, or {@code null} if not present.
+     */
+    @Nullable
+    Object get( int index );
+
+    /**
+     * Get all arguments from {@code start} onwards.
+     *
+     * @param start The first argument to include.
+     * @return The remaining arguments. This may be empty.
+     */
+    @Nonnull
+    Object[] getAll( int start );
+
+    /**
+     * Get the type of an argument, without converting it.
+     *
+     * @param index The argument number.
+     * @return This argument's type, as returned by {@link ArgumentHelper#getType(Object)}.
+     */
+    @Nonnull
+    String getType( int index );
+
+    /**
+     * Determine whether an argument is absent or {@code nil}.
+     *
+     * @param index The argument number.
+     * @return Whether this argument is absent.
+     */
+    boolean isNil( int index );
+
+    double getDouble( int index ) throws LuaException;
+
+    long getLong( int index ) throws LuaException;
+
+    boolean getBoolean( int index ) throws LuaException;
+
+    @Nonnull
+    String getString( int index ) throws LuaException;
+
+    /**
+     * Get an argument as a table.
+     *
+     * Unlike {@link ArgumentHelper#getTable(Object[], int)}, the returned table may be a read-only view of the Lua
+     * table, whose contents are only converted as they are read. It must not be modified, nor used once the function
+     * has returned.
+     *
+     * @param index The argument number.
+     * @return The argument's value.
+     * @throws LuaException If the value is not a table.
+     */
+    @Nonnull
+    Map<?, ?> getTable( int index ) throws LuaException;
+
+    default int getInt( int index ) throws LuaException
+    {
+        return (int) getLong( index );
+    }
+
+    default double getFiniteDouble( int index ) throws LuaException
+    {
+        double value = getDouble( index );
+        if( !Double.isFinite( value ) )
+        {
+            throw ArgumentHelper.badArgument( index, "number", ArgumentHelper.getNumericType( value ) );
+        }
+        return value;
+    }
+
+    default long optLong( int index, long def ) throws LuaException
+    {
+        return isNil( index ) ? def : getLong( index );
+    }
+
+    default boolean optBoolean( int index, boolean def ) throws LuaException
+    {
+        return isNil( index ) ? def : getBoolean( index );
+    }
+
+    @Nullable
+    default String optString( int index, @Nullable String def ) throws LuaException
+    {
+        return isNil( index ) ? def : getString( index );
+    }
+
+    default Map<?, ?> optTable( int index, Map<?, ?> def ) throws LuaException
+    {
+        return isNil( index ) ? def : getTable( index );
+    }
+}
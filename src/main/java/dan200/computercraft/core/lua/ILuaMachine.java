@@ -59,6 +59,18 @@ public interface ILuaMachine
      */
     MachineResult handleEvent( @Nullable String eventName, @Nullable Object[] arguments );
 
+    /**
+     * Get the name of the event this machine is currently waiting for.
+     *
+     * This may be called from any thread. Any event other than this one (or {@code terminate}) will be discarded by
+     * {@link #handleEvent(String, Object[])}, and so need not be queued at all. The filter is only updated once
+     * {@link #handleEvent(String, Object[])} returns, so callers should not rely on it while an event is being handled.
+     *
+     * @return The event this machine is waiting for, or {@code null} if it will accept any event.
+     */
+    @Nullable
+    String getEventFilter();
+
     /**
      * Close the Lua machine, aborting any running functions and deleting the internal state.
      */
@@ -0,0 +1,93 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2020. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.lua;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+
+/**
+ * A Lua string which takes ownership of a slice of a byte array.
+ *
+ * Byte arrays returned to Lua are normally copied, as the caller may continue to modify them. Returning one of these
+ * instead passes the array directly to the Lua string, avoiding the copy. The array must not be modified afterwards.
+ *
+ * This should be used for large binary values, such as those read from binary file handles, HTTP responses and
+ * websocket messages.
+ */
+public final class LuaBytes
+{
+    private final byte[] bytes;
+    private final int offset;
+    private final int length;
+
+    private LuaBytes( byte[] bytes, int offset, int length )
+    {
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Take ownership of a byte array.
+     *
+     * @param bytes The array to use. This must not be modified once passed.
+     * @return The wrapped bytes.
+     */
+    @Nonnull
+    public static LuaBytes of( @Nonnull byte[] bytes )
+    {
+        return new LuaBytes( bytes, 0, bytes.length );
+    }
+
+    /**
+     * Take ownership of part of a byte array.
+     *
+     * The Lua string keeps the whole array alive, so if the region is less than half of the array, we copy it instead.
+     * This avoids a small read pinning a large buffer, such as a whole HTTP body or mounted file.
+     *
+     * @param bytes  The array to use. This region must not be modified once passed.
+     * @param offset The start of the region.
+     * @param length The length of the region.
+     * @return The wrapped bytes.
+     */
+    @Nonnull
+    public static LuaBytes of( @Nonnull byte[] bytes, int offset, int length )
+    {
+        if( offset < 0 || length < 0 || offset + length > bytes.length )
+        {
+            throw new IndexOutOfBoundsException( "Invalid region " + offset + "+" + length + " of " + bytes.length );
+        }
+
+        if( length < bytes.length / 2 ) return new LuaBytes( Arrays.copyOfRange( bytes, offset, offset + length ), 0, length );
+        return new LuaBytes( bytes, offset, length );
+    }
+
+    /**
+     * Copy these bytes into a new array.
+     *
+     * @return A copy of these bytes.
+     */
+    @Nonnull
+    public byte[] toByteArray()
+    {
+        return Arrays.copyOfRange( bytes, offset, offset + length );
+    }
+
+    byte[] bytes()
+    {
+        return bytes;
+    }
+
+    int offset()
+    {
+        return offset;
+    }
+
+    public int length()
+    {
+        return length;
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2020. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.lua;
+
+import dan200.computercraft.api.lua.*;
+
+import java.lang.annotation.*;
+
+/**
+ * Marks a method as being exposed to Lua.
+ *
+ * This is only used by classes implementing {@link AnnotatedLuaObject}, which provides {@link ILuaObject}'s
+ * {@link ILuaObject#getMethodNames()} and {@link ILuaObject#callMethod(ILuaContext, int, Object[])} from the annotated,
+ * public and non-static methods. The method's parameters are converted from the Lua arguments directly, and so do not
+ * need to be unpacked from an {@code Object[]}. This is not yet part of the public API.
+ *
+ * Annotated methods may accept the following parameters, in any order:
+ * <ul>
+ *     <li>{@link ILuaContext}: The context of the current Lua thread.</li>
+ *     <li>{@link IArguments}: All Lua arguments, which may be read lazily. This should be the only argument consumed
+ *     from Lua.</li>
+ *     <li>{@code int}, {@code long}, {@code double}, {@code boolean}, {@link String} or {@link Object}: The next Lua
+ *     argument, converted to the given type. {@code double}s must be finite.</li>
+ *     <li>{@code Object[]}: All remaining Lua arguments. This must be the last argument to be consumed.</li>
+ * </ul>
+ *
+ * Methods may return {@code void}, a single value, an {@code Object[]} of values or a {@link MethodResult}, and may
+ * throw {@link LuaException} to report an error to the caller.
+ */
+@Documented
+@Retention( RetentionPolicy.RUNTIME )
+@Target( ElementType.METHOD )
+public @interface LuaFunction
+{
+    /**
+     * Explicitly specify the names of this method. If not given, the name of the Java method is used.
+     *
+     * @return This function's names.
+     */
+    String[] value() default {};
+}
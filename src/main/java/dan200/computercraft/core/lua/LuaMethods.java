@@ -0,0 +1,249 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2020. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.lua;
+
+import dan200.computercraft.ComputerCraft;
+import dan200.computercraft.api.lua.ILuaContext;
+import dan200.computercraft.api.lua.LuaException;
+import dan200.computercraft.api.lua.MethodResult;
+
+import javax.annotation.Nonnull;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The {@link LuaFunction}s declared on a class, compiled to {@link MethodHandle}s.
+ *
+ * Each method is adapted to a common {@code (Object, ILuaContext, IArguments)Object} signature when the class is first
+ * used, with every parameter read directly from the {@link IArguments}. This means calling a method requires neither a
+ * switch over the method index nor converting (and boxing) every argument to an {@code Object[]}.
+ *
+ * @see AnnotatedLuaObject
+ */
+public final class LuaMethods
+{
+    private static final ClassValue<LuaMethods> cache = new ClassValue<LuaMethods>()
+    {
+        @Override
+        protected LuaMethods computeValue( Class<?> type )
+        {
+            return new LuaMethods( type );
+        }
+    };
+
+    private static final MethodType GENERIC = MethodType.methodType( Object.class, Object.class, ILuaContext.class, IArguments.class );
+
+    private static final MethodHandle ARG_CONTEXT = MethodHandles.dropArguments( MethodHandles.identity( ILuaContext.class ), 1, IArguments.class );
+    private static final MethodHandle ARG_ARGUMENTS = MethodHandles.dropArguments( MethodHandles.identity( IArguments.class ), 0, ILuaContext.class );
+
+    private static final MethodHandle GET_INT = argument( "getInt", int.class );
+    private static final MethodHandle GET_LONG = argument( "getLong", long.class );
+    private static final MethodHandle GET_DOUBLE = argument( "getFiniteDouble", double.class );
+    private static final MethodHandle GET_BOOLEAN = argument( "getBoolean", boolean.class );
+    private static final MethodHandle GET_STRING = argument( "getString", String.class );
+    private static final MethodHandle GET_OBJECT = argument( "get", Object.class );
+    private static final MethodHandle GET_ALL = argument( "getAll", Object[].class );
+
+    private final String[] names;
+    private final MethodHandle[] handles;
+
+    private LuaMethods( Class<?> type )
+    {
+        List<Method> methods = new ArrayList<>();
+        for( Method method : type.getMethods() )
+        {
+            if( method.isAnnotationPresent( LuaFunction.class ) && !Modifier.isStatic( method.getModifiers() ) )
+            {
+                methods.add( method );
+            }
+        }
+        methods.sort( Comparator.comparing( Method::getName ) );
+
+        List<String> names = new ArrayList<>( methods.size() );
+        List<MethodHandle> handles = new ArrayList<>( methods.size() );
+        for( Method method : methods )
+        {
+            MethodHandle handle;
+            try
+            {
+                handle = compile( method );
+            }
+            catch( ReflectiveOperationException | RuntimeException e )
+            {
+                ComputerCraft.log.error( "Cannot expose " + method + " to Lua", e );
+                continue;
+            }
+
+            String[] aliases = method.getAnnotation( LuaFunction.class ).value();
+            if( aliases.length == 0 ) aliases = new String[] { method.getName() };
+            for( String alias : aliases )
+            {
+                names.add( alias );
+                handles.add( handle );
+            }
+        }
+
+        this.names = names.toArray( new String[0] );
+        this.handles = handles.toArray( new MethodHandle[0] );
+    }
+
+    /**
+     * Get the Lua methods for a class.
+     *
+     * @param type The class to get the methods of.
+     * @return This class's methods.
+     */
+    @Nonnull
+    public static LuaMethods of( @Nonnull Class<?> type )
+    {
+        return cache.get( type );
+    }
+
+    /**
+     * Get the names of this class's methods. This array is shared, and so must not be modified.
+     *
+     * @return This class's method names.
+     * @see dan200.computercraft.api.lua.ILuaObject#getMethodNames()
+     */
+    @Nonnull
+    public String[] getNames()
+    {
+        return names;
+    }
+
+    /**
+     * Call a method on an object.
+     *
+     * @param receiver The object to call the method on. This must be an instance of the class these methods were
+     *                 created for.
+     * @param context  The current Lua context.
+     * @param method   The index of the method to call, into {@link #getNames()}.
+     * @param args     The arguments to this method.
+     * @return The method's result.
+     * @throws LuaException         If the method threw an error.
+     * @throws InterruptedException If the computer was shut down while this method was blocking.
+     */
+    @Nonnull
+    public MethodResult call( @Nonnull Object receiver, @Nonnull ILuaContext context, int method, @Nonnull IArguments args ) throws LuaException, InterruptedException
+    {
+        if( method < 0 || method >= handles.length ) return MethodResult.of();
+
+        Object result;
+        try
+        {
+            result = (Object) handles[method].invokeExact( receiver, context, args );
+        }
+        catch( LuaException | InterruptedException | RuntimeException | Error e )
+        {
+            throw e;
+        }
+        catch( Throwable e )
+        {
+            throw new IllegalStateException( e );
+        }
+
+        if( result == null ) return MethodResult.of();
+        if( result instanceof MethodResult ) return (MethodResult) result;
+        if( result instanceof Object[] ) return MethodResult.of( (Object[]) result );
+        return MethodResult.of( result );
+    }
+
+    /**
+     * Adapt a method to the {@link #GENERIC} signature, converting each parameter from the context and arguments.
+     *
+     * @param method The method to compile.
+     * @return The adapted method handle.
+     * @throws IllegalAccessException If the method is not accessible.
+     */
+    private static MethodHandle compile( Method method ) throws IllegalAccessException
+    {
+        Class<?>[] parameters = method.getParameterTypes();
+        MethodHandle handle = MethodHandles.publicLookup().unreflect( method );
+
+        // Replace each parameter with a converter of type (ILuaContext, IArguments)T. This expands the handle to
+        // (Receiver, ILuaContext, IArguments, ILuaContext, IArguments, ...), which we then collapse down.
+        int arguments = 0;
+        for( Class<?> parameter : parameters )
+        {
+            if( parameter != ILuaContext.class && parameter != IArguments.class ) arguments++;
+        }
+
+        int argument = arguments;
+
+        for( int i = parameters.length - 1; i >= 0; i-- )
+        {
+            Class<?> parameter = parameters[i];
+            MethodHandle converter;
+            if( parameter == ILuaContext.class )
+            {
+                converter = ARG_CONTEXT;
+            }
+            else if( parameter == IArguments.class )
+            {
+                converter = ARG_ARGUMENTS;
+            }
+            else
+            {
+                if( parameter == Object[].class && argument != arguments )
+                {
+                    throw new IllegalArgumentException( "Object[] must be the last Lua argument" );
+                }
+
+                argument--;
+                converter = MethodHandles.insertArguments( getter( parameter ), 1, argument );
+                converter = MethodHandles.dropArguments( converter, 0, ILuaContext.class );
+            }
+
+            handle = MethodHandles.collectArguments( handle, i + 1, converter );
+        }
+
+        int[] reorder = new int[1 + parameters.length * 2];
+        for( int i = 0; i < parameters.length; i++ )
+        {
+            reorder[1 + i * 2] = 1;
+            reorder[2 + i * 2] = 2;
+        }
+        handle = MethodHandles.permuteArguments( handle,
+            MethodType.methodType( handle.type().returnType(), method.getDeclaringClass(), ILuaContext.class, IArguments.class ),
+            reorder );
+
+        if( handle.type().returnType() == void.class )
+        {
+            handle = MethodHandles.filterReturnValue( handle, MethodHandles.constant( Object.class, null ) );
+        }
+        return handle.asType( GENERIC );
+    }
+
+    private static MethodHandle getter( Class<?> type )
+    {
+        if( type == int.class ) return GET_INT;
+        if( type == long.class ) return GET_LONG;
+        if( type == double.class ) return GET_DOUBLE;
+        if( type == boolean.class ) return GET_BOOLEAN;
+        if( type == String.class ) return GET_STRING;
+        if( type == Object.class ) return GET_OBJECT;
+        if( type == Object[].class ) return GET_ALL;
+        throw new IllegalArgumentException( "Unsupported parameter type " + type.getName() );
+    }
+
+    private static MethodHandle argument( String name, Class<?> type )
+    {
+        try
+        {
+            return MethodHandles.publicLookup().findVirtual( IArguments.class, name, MethodType.methodType( type, int.class ) );
+        }
+        catch( ReflectiveOperationException e )
+        {
+            throw new IllegalStateException( e );
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2020. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.lua;
+
+import org.squiddev.cobalt.Constants;
+import org.squiddev.cobalt.LuaError;
+import org.squiddev.cobalt.LuaTable;
+import org.squiddev.cobalt.LuaValue;
+import org.squiddev.cobalt.Varargs;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+
+import static org.squiddev.cobalt.ValueFactory.valueOf;
+
+/**
+ * A read-only view of a {@link LuaTable}, which converts keys and values to Java objects as they are accessed.
+ *
+ * {@link CobaltLuaMachine#toObject(LuaValue, Map)} copies a table (and every table reachable from it) into a
+ * {@link HashMap}. This is wasteful when a function only reads a couple of fields from a table of options, so
+ * {@link IArguments#getTable(int)} returns one of these instead. Nested tables are also returned as views.
+ *
+ * As this reads the underlying table directly, it must only be used on the computer thread, during the function call
+ * it was passed to.
+ */
+final class LuaTableView extends AbstractMap<Object, Object>
+{
+    private final LuaTable table;
+    private Set<Entry<Object, Object>> entries;
+
+    LuaTableView( LuaTable table )
+    {
+        this.table = table;
+    }
+
+    @Override
+    public Object get( Object key )
+    {
+        LuaValue luaKey = toKey( key );
+        return luaKey == null ? null : toObject( table.rawget( luaKey ) );
+    }
+
+    @Override
+    public boolean containsKey( Object key )
+    {
+        return get( key ) != null;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return !entrySet().iterator().hasNext();
+    }
+
+    @Nonnull
+    @Override
+    public Set<Entry<Object, Object>> entrySet()
+    {
+        Set<Entry<Object, Object>> entries = this.entries;
+        if( entries == null ) this.entries = entries = new EntrySet();
+        return entries;
+    }
+
+    @Nullable
+    private static LuaValue toKey( Object key )
+    {
+        if( key instanceof String ) return valueOf( (String) key );
+        if( key instanceof Number ) return valueOf( ((Number) key).doubleValue() );
+        if( key instanceof Boolean ) return valueOf( (Boolean) key );
+        return null;
+    }
+
+    /**
+     * Convert a value to a Java object, following the same rules as {@link CobaltLuaMachine#toObject(LuaValue, Map)},
+     * but returning tables as views rather than copying them.
+     *
+     * @param value The value to convert.
+     * @return The converted value.
+     */
+    @Nullable
+    static Object toObject( LuaValue value )
+    {
+        return value.type() == Constants.TTABLE ? new LuaTableView( (LuaTable) value ) : CobaltLuaMachine.toObject( value, null );
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<Object, Object>>
+    {
+        @Nonnull
+        @Override
+        public Iterator<Entry<Object, Object>> iterator()
+        {
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size()
+        {
+            int size = 0;
+            for( Iterator<?> it = iterator(); it.hasNext(); it.next() ) size++;
+            return size;
+        }
+    }
+
+    private final class EntryIterator implements Iterator<Entry<Object, Object>>
+    {
+        private LuaValue key = Constants.NIL;
+        private Entry<Object, Object> next;
+        private boolean finished;
+
+        @Override
+        public boolean hasNext()
+        {
+            if( next != null ) return true;
+            if( finished ) return false;
+
+            while( true )
+            {
+                Varargs pair;
+                try
+                {
+                    pair = table.next( key );
+                }
+                catch( LuaError e )
+                {
+                    finished = true;
+                    return false;
+                }
+
+                key = pair.first();
+                if( key.isNil() )
+                {
+                    finished = true;
+                    return false;
+                }
+
+                // Skip entries which cannot be converted, as the eager conversion does.
+                Object keyObject = toObject( key );
+                Object valueObject = toObject( pair.arg( 2 ) );
+                if( keyObject != null && valueObject != null )
+                {
+                    next = new SimpleImmutableEntry<>( keyObject, valueObject );
+                    return true;
+                }
+            }
+        }
+
+        @Override
+        public Entry<Object, Object> next()
+        {
+            if( !hasNext() ) throw new NoSuchElementException();
+            Entry<Object, Object> result = next;
+            next = null;
+            return result;
+        }
+    }
+}
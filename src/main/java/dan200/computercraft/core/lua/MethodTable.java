@@ -0,0 +1,101 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2020. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.lua;
+
+import dan200.computercraft.api.lua.ILuaObject;
+import org.squiddev.cobalt.LuaString;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The methods exposed by an {@link ILuaObject}, shared between every object of the same class.
+ *
+ * Many objects (such as file handles or HTTP responses) are created in large numbers, but all expose the same methods.
+ * Rather than converting each object's method names into Lua strings every time it is wrapped, we compute them once
+ * per class. Only the names and keys are shared: each wrapped object still gets one function per method, bound to
+ * that object.
+ *
+ * @see CobaltLuaMachine
+ */
+final class MethodTable
+{
+    private static final Map<Class<?>, MethodTable> cache = new ConcurrentHashMap<>();
+
+    private final String[] names;
+    private final String[] methodNames;
+    private final LuaString[] keys;
+    private final int[] indices;
+
+    private MethodTable( String[] names )
+    {
+        this.names = names;
+
+        int size = 0;
+        for( String name : names ) if( name != null ) size++;
+
+        methodNames = new String[size];
+        keys = new LuaString[size];
+        indices = new int[size];
+
+        int i = 0;
+        for( int method = 0; method < names.length; method++ )
+        {
+            String name = names[method];
+            if( name == null ) continue;
+
+            methodNames[i] = name;
+            keys[i] = LuaString.valueOf( name );
+            indices[i] = method;
+            i++;
+        }
+    }
+
+    /**
+     * Get the method table for an object.
+     *
+     * Objects may return different method names depending on their state (for instance, generic peripherals), so we
+     * only use the cached table if its names match the object's current ones.
+     *
+     * @param object The object to get the methods of.
+     * @return The object's method table.
+     */
+    @Nonnull
+    static MethodTable get( @Nonnull ILuaObject object )
+    {
+        String[] names = object.getMethodNames();
+        Class<?> klass = object.getClass();
+
+        MethodTable table = cache.get( klass );
+        if( table != null && (table.names == names || Arrays.equals( table.names, names )) ) return table;
+
+        MethodTable newTable = new MethodTable( names.clone() );
+        if( table == null ) cache.putIfAbsent( klass, newTable );
+        return newTable;
+    }
+
+    int size()
+    {
+        return keys.length;
+    }
+
+    LuaString getKey( int index )
+    {
+        return keys[index];
+    }
+
+    String getName( int index )
+    {
+        return methodNames[index];
+    }
+
+    int getMethod( int index )
+    {
+        return indices[index];
+    }
+}
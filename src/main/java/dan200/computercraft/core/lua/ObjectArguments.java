@@ -0,0 +1,94 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2020. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.lua;
+
+import dan200.computercraft.api.lua.ArgumentHelper;
+import dan200.computercraft.api.lua.LuaException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * {@link IArguments} backed by an array of already converted Java objects, as passed to
+ * {@link dan200.computercraft.api.lua.ILuaObject#callMethod}.
+ */
+public final class ObjectArguments implements IArguments
+{
+    private final Object[] args;
+
+    public ObjectArguments( @Nonnull Object[] args )
+    {
+        this.args = args;
+    }
+
+    @Override
+    public int count()
+    {
+        return args.length;
+    }
+
+    @Nullable
+    @Override
+    public Object get( int index )
+    {
+        return index < args.length ? args[index] : null;
+    }
+
+    @Nonnull
+    @Override
+    public Object[] getAll( int start )
+    {
+        if( start == 0 ) return args;
+        return start >= args.length ? new Object[0] : Arrays.copyOfRange( args, start, args.length );
+    }
+
+    @Nonnull
+    @Override
+    public String getType( int index )
+    {
+        return ArgumentHelper.getType( get( index ) );
+    }
+
+    @Override
+    public boolean isNil( int index )
+    {
+        return get( index ) == null;
+    }
+
+    @Override
+    public double getDouble( int index ) throws LuaException
+    {
+        return ArgumentHelper.getDouble( args, index );
+    }
+
+    @Override
+    public long getLong( int index ) throws LuaException
+    {
+        return ArgumentHelper.getLong( args, index );
+    }
+
+    @Override
+    public boolean getBoolean( int index ) throws LuaException
+    {
+        return ArgumentHelper.getBoolean( args, index );
+    }
+
+    @Nonnull
+    @Override
+    public String getString( int index ) throws LuaException
+    {
+        return ArgumentHelper.getString( args, index );
+    }
+
+    @Nonnull
+    @Override
+    public Map<?, ?> getTable( int index ) throws LuaException
+    {
+        return ArgumentHelper.getTable( args, index );
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2020. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.lua;
+
+import com.google.common.io.ByteStreams;
+import dan200.computercraft.ComputerCraft;
+import dan200.computercraft.api.filesystem.IMount;
+import org.squiddev.cobalt.LuaString;
+import org.squiddev.cobalt.LuaTable;
+import org.squiddev.cobalt.Prototype;
+import org.squiddev.cobalt.compiler.CompileException;
+import org.squiddev.cobalt.compiler.LoadState;
+import org.squiddev.cobalt.compiler.LuaC;
+import org.squiddev.cobalt.function.LuaFunction;
+import org.squiddev.cobalt.function.LuaInterpretedFunction;
+
+import javax.annotation.Nonnull;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * A process-wide cache of compiled {@link Prototype}s, shared between all computers.
+ *
+ * Every computer loads the bios and much of the ROM when booting, which otherwise means recompiling the same code for
+ * each computer. As prototypes are never modified once compiled, we can instead compile each chunk once and create a
+ * new function from the prototype for each computer.
+ *
+ * We only cache the bios and chunks whose contents exactly match a file in the ROM, to avoid filling the cache with
+ * user code. Entries are keyed by both the chunk name and a hash of the contents, and so a modified copy of a ROM file
+ * (for instance, from a resource pack) is simply compiled as normal. As most chunks are not from the ROM, we only read
+ * and hash a chunk if its name and length match those of a ROM file.
+ */
+public final class PrototypeCache implements LoadState.LuaCompiler
+{
+    public static final PrototypeCache INSTANCE = new PrototypeCache();
+
+    /**
+     * The maximum number of prototypes to keep in the cache.
+     */
+    private static final int MAX_ENTRIES = 512;
+
+    /**
+     * Hashes of every file which may be cached.
+     */
+    private final Set<ByteBuffer> sources = Collections.synchronizedSet( new HashSet<>() );
+
+    /**
+     * The chunk names (as used by {@code loadfile}) of every file which may be cached.
+     */
+    private final Set<LuaString> sourceNames = Collections.synchronizedSet( new HashSet<>() );
+
+    /**
+     * The lengths of every file which may be cached.
+     */
+    private final Set<Integer> sourceLengths = Collections.synchronizedSet( new HashSet<>() );
+
+    private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial( () -> {
+        try
+        {
+            return MessageDigest.getInstance( "SHA-256" );
+        }
+        catch( NoSuchAlgorithmException e )
+        {
+            throw new IllegalStateException( "SHA-256 is not available", e );
+        }
+    } );
+
+    private final Map<Key, Prototype> cache = new LinkedHashMap<Key, Prototype>( 16, 0.75f, true )
+    {
+        @Override
+        protected boolean removeEldestEntry( Map.Entry<Key, Prototype> eldest )
+        {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private PrototypeCache()
+    {
+    }
+
+    /**
+     * Mark every Lua file within a mount as being safe to cache.
+     *
+     * @param mount The mount to search. This should be read only.
+     */
+    public void addSources( @Nonnull IMount mount )
+    {
+        try
+        {
+            addSources( mount, "" );
+        }
+        catch( IOException e )
+        {
+            ComputerCraft.log.error( "Cannot index ROM for prototype cache", e );
+        }
+    }
+
+    private void addSources( IMount mount, String path ) throws IOException
+    {
+        if( mount.isDirectory( path ) )
+        {
+            List<String> children = new ArrayList<>();
+            mount.list( path, children );
+            for( String child : children ) addSources( mount, path.isEmpty() ? child : path + "/" + child );
+        }
+        else if( path.endsWith( ".lua" ) )
+        {
+            byte[] contents;
+            try( InputStream stream = mount.openForRead( path ) )
+            {
+                contents = ByteStreams.toByteArray( stream );
+            }
+
+            sources.add( hash( contents ) );
+            sourceLengths.add( contents.length );
+
+            // loadfile names chunks after the file name, without its directory.
+            sourceNames.add( LuaString.valueOf( "@" + path.substring( path.lastIndexOf( '/' ) + 1 ) ) );
+        }
+    }
+
+    @Override
+    public LuaFunction load( InputStream stream, LuaString name, LuaTable env ) throws IOException, CompileException
+    {
+        return load( stream, name, env, false );
+    }
+
+    /**
+     * Load a chunk, using a cached prototype if available.
+     *
+     * @param stream  The chunk's contents.
+     * @param name    The name of this chunk.
+     * @param env     The environment for the resulting function.
+     * @param trusted Whether this chunk should always be cached, even if it is not from the ROM.
+     * @return The loaded function.
+     * @throws IOException      If the chunk could not be read.
+     * @throws CompileException If the chunk could not be compiled.
+     */
+    public LuaFunction load( InputStream stream, LuaString name, LuaTable env, boolean trusted ) throws IOException, CompileException
+    {
+        // Most chunks (such as those from load or textutils.unserialise) have no chance of being cached, so compile
+        // them directly rather than reading and hashing them.
+        if( !trusted && !sourceNames.contains( name ) )
+        {
+            return new LuaInterpretedFunction( LuaC.compile( stream, name ), env );
+        }
+
+        byte[] contents = ByteStreams.toByteArray( stream );
+        if( !trusted && !sourceLengths.contains( contents.length ) )
+        {
+            return new LuaInterpretedFunction( LuaC.compile( new ByteArrayInputStream( contents ), name ), env );
+        }
+
+        ByteBuffer hash = hash( contents );
+        if( !trusted && !sources.contains( hash ) )
+        {
+            return new LuaInterpretedFunction( LuaC.compile( new ByteArrayInputStream( contents ), name ), env );
+        }
+
+        Key key = new Key( name, hash );
+        Prototype prototype;
+        synchronized( cache )
+        {
+            prototype = cache.get( key );
+        }
+
+        if( prototype == null )
+        {
+            // We compile outside the lock, as this is relatively slow. If two computers compile the same chunk at once,
+            // then the latter will replace the former, which is harmless.
+            prototype = LuaC.compile( new ByteArrayInputStream( contents ), name );
+            synchronized( cache )
+            {
+                cache.put( key, prototype );
+            }
+        }
+
+        return new LuaInterpretedFunction( prototype, env );
+    }
+
+    private static ByteBuffer hash( byte[] contents )
+    {
+        return ByteBuffer.wrap( DIGEST.get().digest( contents ) );
+    }
+
+    private static final class Key
+    {
+        private final LuaString name;
+        private final ByteBuffer hash;
+
+        Key( LuaString name, ByteBuffer hash )
+        {
+            this.name = name;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals( Object o )
+        {
+            if( this == o ) return true;
+            if( !(o instanceof Key) ) return false;
+
+            Key other = (Key) o;
+            return name.equals( other.name ) && hash.equals( other.hash );
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * name.hashCode() + hash.hashCode();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2020. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.lua;
+
+import dan200.computercraft.api.lua.*;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * Waits for a main thread task to complete, without blocking the computer thread.
+ *
+ * When running on one of our own Lua machines, the task's result is passed directly to this callback and the computer
+ * is woken with the usual {@code task_complete} event, which bypasses the event queue's limit. This means results cannot
+ * be dropped if the computer is busy, and are never converted back from Lua values. For other contexts, we fall back to
+ * {@link ILuaContext#issueMainThreadTask(ILuaTask)} and read the result from the event instead.
+ *
+ * @see ILuaContext#executeMainThreadTask(ILuaTask)
+ */
+public final class TaskCallback implements ILuaCallback
+{
+    final MethodResult pull = MethodResult.pullEvent( "task_complete", this );
+    private final long task;
+
+    private volatile boolean done;
+    private Object[] result;
+    private boolean failed;
+    private String error;
+
+    TaskCallback( long task )
+    {
+        this.task = task;
+    }
+
+    /**
+     * Mark this task as having completed successfully. This is called from the main thread.
+     *
+     * @param result The values returned by the task.
+     */
+    void complete( @Nullable Object[] result )
+    {
+        this.result = result;
+        done = true;
+    }
+
+    /**
+     * Mark this task as having failed. This is called from the main thread.
+     *
+     * @param error The error message, if present.
+     */
+    void fail( @Nullable String error )
+    {
+        this.error = error;
+        failed = true;
+        done = true;
+    }
+
+    @Nonnull
+    @Override
+    public MethodResult resume( Object[] response ) throws LuaException
+    {
+        if( done )
+        {
+            if( !failed ) return MethodResult.of( result );
+            throw error == null ? new LuaException() : new LuaException( error );
+        }
+
+        if( response.length < 3 || !(response[1] instanceof Number) || !(response[2] instanceof Boolean) )
+        {
+            return pull;
+        }
+
+        if( ((Number) response[1]).longValue() != task ) return pull;
+
+        if( (Boolean) response[2] )
+        {
+            // Extract the return values from the event and return them
+            return MethodResult.of( Arrays.copyOfRange( response, 3, response.length ) );
+        }
+        else if( response.length >= 4 && response[3] instanceof String )
+        {
+            // Extract the error message from the event and raise it
+            throw new LuaException( (String) response[3] );
+        }
+        else
+        {
+            throw new LuaException();
+        }
+    }
+
+    /**
+     * Queue a task on the main thread, and wait for it to complete.
+     *
+     * @param context The context to issue the task with.
+     * @param task    The task to run.
+     * @return A method result which yields until the task has completed, and then returns its values.
+     * @throws LuaException If the task could not be queued.
+     */
+    @Nonnull
+    public static MethodResult make( @Nonnull ILuaContext context, @Nonnull ILuaTask task ) throws LuaException
+    {
+        if( context instanceof CobaltLuaMachine.CobaltLuaContext )
+        {
+            return ((CobaltLuaMachine.CobaltLuaContext) context).executeTask( task );
+        }
+
+        long taskID = context.issueMainThreadTask( task );
+        return new TaskCallback( taskID ).pull;
+    }
+}
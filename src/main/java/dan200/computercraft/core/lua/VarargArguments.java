@@ -0,0 +1,150 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2020. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.lua;
+
+import dan200.computercraft.api.lua.ArgumentHelper;
+import dan200.computercraft.api.lua.LuaException;
+import org.squiddev.cobalt.Constants;
+import org.squiddev.cobalt.LuaTable;
+import org.squiddev.cobalt.LuaValue;
+import org.squiddev.cobalt.Varargs;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Map;
+
+/**
+ * {@link IArguments} which reads directly from Cobalt's {@link Varargs}, only converting the arguments which are
+ * actually used, and without boxing numbers or booleans.
+ */
+final class VarargArguments implements IArguments
+{
+    private final Varargs varargs;
+
+    VarargArguments( Varargs varargs )
+    {
+        this.varargs = varargs;
+    }
+
+    @Override
+    public int count()
+    {
+        return varargs.count();
+    }
+
+    @Nullable
+    @Override
+    public Object get( int index )
+    {
+        return CobaltLuaMachine.toObject( varargs.arg( index + 1 ), null );
+    }
+
+    @Nonnull
+    @Override
+    public Object[] getAll( int start )
+    {
+        return start >= varargs.count() ? new Object[0] : CobaltLuaMachine.toObjects( varargs, start + 1 );
+    }
+
+    @Nonnull
+    @Override
+    public String getType( int index )
+    {
+        return getType( varargs.arg( index + 1 ) );
+    }
+
+    @Override
+    public boolean isNil( int index )
+    {
+        return getType( varargs.arg( index + 1 ) ).equals( "nil" );
+    }
+
+    @Override
+    public double getDouble( int index ) throws LuaException
+    {
+        LuaValue value = varargs.arg( index + 1 );
+        if( !isNumber( value ) ) throw ArgumentHelper.badArgument( index, "number", getType( value ) );
+        return value.toDouble();
+    }
+
+    @Override
+    public int getInt( int index ) throws LuaException
+    {
+        LuaValue value = varargs.arg( index + 1 );
+        return value.type() == Constants.TINT ? value.toInteger() : (int) getLong( index );
+    }
+
+    @Override
+    public long getLong( int index ) throws LuaException
+    {
+        LuaValue value = varargs.arg( index + 1 );
+        if( value.type() == Constants.TINT ) return value.toInteger();
+        if( value.type() != Constants.TNUMBER ) throw ArgumentHelper.badArgument( index, "number", getType( value ) );
+
+        double number = value.toDouble();
+        if( !Double.isFinite( number ) )
+        {
+            throw ArgumentHelper.badArgument( index, "number", ArgumentHelper.getNumericType( number ) );
+        }
+        return (long) number;
+    }
+
+    @Override
+    public boolean getBoolean( int index ) throws LuaException
+    {
+        LuaValue value = varargs.arg( index + 1 );
+        if( value.type() != Constants.TBOOLEAN ) throw ArgumentHelper.badArgument( index, "boolean", getType( value ) );
+        return value.toBoolean();
+    }
+
+    @Nonnull
+    @Override
+    public String getString( int index ) throws LuaException
+    {
+        LuaValue value = varargs.arg( index + 1 );
+        if( value.type() != Constants.TSTRING ) throw ArgumentHelper.badArgument( index, "string", getType( value ) );
+        return value.toString();
+    }
+
+    @Nonnull
+    @Override
+    public Map<?, ?> getTable( int index ) throws LuaException
+    {
+        LuaValue value = varargs.arg( index + 1 );
+        if( value.type() != Constants.TTABLE ) throw ArgumentHelper.badArgument( index, "table", getType( value ) );
+        return new LuaTableView( (LuaTable) value );
+    }
+
+    private static boolean isNumber( LuaValue value )
+    {
+        return value.type() == Constants.TINT || value.type() == Constants.TNUMBER;
+    }
+
+    /**
+     * Get the type of a value, as it would be reported by {@link ArgumentHelper#getType(Object)} once converted to a
+     * Java object. Values which cannot be converted (such as functions) are treated as {@code nil}.
+     *
+     * @param value The value to get the type of.
+     * @return This value's type.
+     */
+    private static String getType( LuaValue value )
+    {
+        switch( value.type() )
+        {
+            case Constants.TINT:
+            case Constants.TNUMBER:
+                return "number";
+            case Constants.TBOOLEAN:
+                return "boolean";
+            case Constants.TSTRING:
+                return "string";
+            case Constants.TTABLE:
+                return "table";
+            default:
+                return "nil";
+        }
+    }
+}
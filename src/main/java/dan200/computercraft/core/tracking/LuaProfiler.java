@@ -0,0 +1,137 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2020. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.tracking;
+
+import dan200.computercraft.core.computer.Computer;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * A sampling profiler for a single computer.
+ *
+ * While a profiler is attached to a {@link Computer}, the Lua machine periodically records the current Lua call stack
+ * (as chunk name and line number). These samples are aggregated by stack, and may be written out in the "collapsed
+ * stack" format understood by most flame graph tools.
+ *
+ * @see Computer#getProfiler()
+ */
+public final class LuaProfiler
+{
+    /**
+     * The maximum number of distinct stacks we record. Any further stacks are counted under {@link #OTHER}, to avoid
+     * a program with many distinct stacks using an unbounded amount of memory.
+     */
+    private static final int MAX_STACKS = 4096;
+
+    private static final String OTHER = "[other]";
+
+    private final long interval;
+    private volatile boolean running = true;
+    private long nextSample;
+
+    private final Map<String, long[]> samples = new HashMap<>();
+    private long total;
+
+    /**
+     * Create a new profiler.
+     *
+     * @param interval The minimum time between two samples, in nanoseconds.
+     */
+    public LuaProfiler( long interval )
+    {
+        this.interval = interval;
+        nextSample = System.nanoTime();
+    }
+
+    /**
+     * Determine whether a sample should be taken now. This is only called from the computer thread.
+     *
+     * @return Whether to take a sample.
+     */
+    public boolean shouldSample()
+    {
+        if( !running ) return false;
+
+        long now = System.nanoTime();
+        if( now - nextSample < 0 ) return false;
+
+        nextSample = now + interval;
+        return true;
+    }
+
+    /**
+     * Record a sample.
+     *
+     * @param stack The current stack, with each frame separated by {@code ;} and starting from the outermost frame.
+     */
+    public void addSample( @Nonnull String stack )
+    {
+        synchronized( samples )
+        {
+            long[] count = samples.get( stack );
+            if( count == null )
+            {
+                if( samples.size() >= MAX_STACKS ) stack = OTHER;
+                count = samples.computeIfAbsent( stack, x -> new long[1] );
+            }
+
+            count[0]++;
+            total++;
+        }
+    }
+
+    /**
+     * Stop collecting samples. The existing samples are kept.
+     */
+    public void stop()
+    {
+        running = false;
+    }
+
+    public boolean isRunning()
+    {
+        return running;
+    }
+
+    public long getSampleCount()
+    {
+        synchronized( samples )
+        {
+            return total;
+        }
+    }
+
+    /**
+     * Write the collected samples in the collapsed stack format, with the most common stacks first.
+     *
+     * @param writer The writer to write to.
+     * @throws IOException If the samples could not be written.
+     */
+    public void write( @Nonnull Writer writer ) throws IOException
+    {
+        List<Map.Entry<String, Long>> entries;
+        synchronized( samples )
+        {
+            entries = new ArrayList<>( samples.size() );
+            for( Map.Entry<String, long[]> entry : samples.entrySet() )
+            {
+                entries.add( new AbstractMap.SimpleImmutableEntry<>( entry.getKey(), entry.getValue()[0] ) );
+            }
+        }
+
+        entries.sort( Map.Entry.<String, Long>comparingByValue().reversed() );
+        for( Map.Entry<String, Long> entry : entries )
+        {
+            writer.write( entry.getKey() );
+            writer.write( ' ' );
+            writer.write( Long.toString( entry.getValue() ) );
+            writer.write( '\n' );
+        }
+    }
+}
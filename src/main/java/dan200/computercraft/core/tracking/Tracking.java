@@ -33,6 +33,17 @@ public final class Tracking
         }
     }
 
+    /**
+     * Determine whether anything is currently being tracked. This may be used to skip computing values which are
+     * expensive to measure.
+     *
+     * @return Whether any tracking context or tracker is active.
+     */
+    public static boolean isTracking()
+    {
+        return tracking.get() != 0;
+    }
+
     public static void add( Tracker tracker )
     {
         synchronized( lock )
@@ -23,6 +23,17 @@ public final class TrackingField
     public static final TrackingField AVERAGE_TIME = TrackingField.of( "average", "Average time", x -> String.format( "%4.1fms", x / 1e6 ) );
     public static final TrackingField MAX_TIME = TrackingField.of( "max", "Max time", x -> String.format( "%5.1fms", x / 1e6 ) );
 
+    /**
+     * The number of Lua instructions executed, to the nearest 128.
+     */
+    public static final TrackingField INSTRUCTIONS = TrackingField.of( "instructions", "Lua instructions", TrackingField::formatDefault );
+
+    /**
+     * The memory allocated by the computer thread while running this computer. This does not include memory allocated
+     * by coroutines, which run on their own threads.
+     */
+    public static final TrackingField ALLOCATED = TrackingField.of( "allocated", "Memory allocated", TrackingField::formatBytes );
+
     public static final TrackingField SERVER_COUNT = TrackingField.of( "server_count", "Server task count", x -> String.format( "%4d", x ) );
     public static final TrackingField SERVER_TIME = TrackingField.of( "server_time", "Server task time", x -> String.format( "%7.1fms", x / 1e6 ) );
 
@@ -40,6 +51,25 @@ public final class TrackingField
     public static final TrackingField COROUTINES_CREATED = TrackingField.of( "coroutines_created", "Coroutines created", x -> String.format( "%4d", x ) );
     public static final TrackingField COROUTINES_DISPOSED = TrackingField.of( "coroutines_dead", "Coroutines disposed", x -> String.format( "%4d", x ) );
 
+    /**
+     * The change in the number of running coroutines. This is the number of live coroutines, assuming tracking was
+     * started before the computer was turned on.
+     */
+    public static final TrackingField COROUTINES_LIVE = TrackingField.of( "coroutines_live", "Coroutines running", x -> String.format( "%4d", x ) );
+
+    /**
+     * The increase in the computer's peak number of running coroutines.
+     */
+    public static final TrackingField COROUTINES_PEAK = TrackingField.of( "coroutines_peak", "Peak coroutines", x -> String.format( "%4d", x ) );
+
+    public static final TrackingField EVENTS_COALESCED = TrackingField.of( "events_coalesced", "Events coalesced", TrackingField::formatDefault );
+    public static final TrackingField EVENTS_DROPPED = TrackingField.of( "events_dropped", "Events dropped", TrackingField::formatDefault );
+
+    /**
+     * The number of times this computer was parked for exceeding its CPU quota.
+     */
+    public static final TrackingField THROTTLED = TrackingField.of( "throttled", "Times throttled", TrackingField::formatDefault );
+
     private final String id;
     private final String translationKey;
     private final LongFunction<String> format;
@@ -11,6 +11,9 @@ import dan200.computercraft.ComputerCraft;
 import dan200.computercraft.api.turtle.event.TurtleAction;
 import dan200.computercraft.core.apis.AddressPredicate;
 import dan200.computercraft.core.apis.http.websocket.Websocket;
+import dan200.computercraft.core.computer.Computer;
+import dan200.computercraft.core.computer.ComputerThread;
+import dan200.computercraft.shared.computer.core.ComputerGrouping;
 import net.minecraftforge.common.config.ConfigCategory;
 import net.minecraftforge.common.config.ConfigElement;
 import net.minecraftforge.common.config.Configuration;
@@ -20,6 +23,7 @@ import net.minecraftforge.fml.client.config.IConfigElement;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
@@ -48,8 +52,22 @@ public final class Config
     private static Property logComputerErrors;
 
     private static Property computerThreads;
+    private static Property maxComputerThreads;
+    private static Property workStealing;
+    private static Property computerGrouping;
+    private static Property coalesceEvents;
+    private static Property prewarmMachines;
+    private static Property maxBootsPerSecond;
+    private static Property maxConcurrentBoots;
+    private static Property maxCoroutines;
+    private static Property maxCoroutinesPerComputer;
+    private static Property cpuQuotaTime;
+    private static Property cpuQuotaPeriod;
+    private static Property profilerInterval;
     private static Property maxMainGlobalTime;
     private static Property maxMainComputerTime;
+    private static Property minMainGlobalTime;
+    private static Property minMainComputerTime;
 
     private static Property httpEnable;
     private static Property httpWebsocketEnable;
@@ -134,11 +152,88 @@ public final class Config
             computerThreads = config.get( CATEGORY_EXECUTION, "computer_threads", ComputerCraft.computer_threads );
             computerThreads
                 .setMinValue( 1 )
-                .setRequiresMcRestart( true )
                 .setComment( "Set the number of threads computers can run on. A higher number means more computers can " +
-                    "run at once, but may induce lag.\n" +
+                    "run at once, but may induce lag. This may be changed while the server is running.\n" +
                     "Please note that some mods may not work with a thread count higher than 1. Use with caution." );
 
+            maxComputerThreads = config.get( CATEGORY_EXECUTION, "max_computer_threads", ComputerCraft.maxComputerThreads );
+            maxComputerThreads
+                .setMinValue( 0 )
+                .setComment( "The maximum number of threads computers can run on. If this is larger than " +
+                    "\"computer_threads\", additional threads will be started while many computers are waiting to run, " +
+                    "and stopped again once they are idle. Set to 0 to disable." );
+
+            workStealing = config.get( CATEGORY_EXECUTION, "work_stealing", ComputerCraft.workStealing );
+            workStealing
+                .setRequiresMcRestart( true )
+                .setComment( "Give each computer thread its own queue of computers to run, with idle threads taking work " +
+                    "from busy ones. This reduces contention when running many computers across many threads, but has " +
+                    "no effect when only using a single thread." );
+
+            computerGrouping = config.get( CATEGORY_EXECUTION, "computer_grouping", ComputerCraft.computerGrouping.name().toLowerCase( Locale.ROOT ) );
+            computerGrouping
+                .setValidValues( new String[] { "none", "dimension" } )
+                .setComment( "How computers should be grouped when sharing out time between them. Each group receives an " +
+                    "equal share of time, which is then split between the computers within it. This means one group of " +
+                    "busy computers cannot slow down computers elsewhere.\n" +
+                    "Can be \"none\" (every computer gets an equal share) or \"dimension\" (group computers by dimension)." );
+
+            coalesceEvents = config.get( CATEGORY_EXECUTION, "coalesce_events", ComputerCraft.coalesceEvents );
+            coalesceEvents
+                .setComment( "Merge repeated events (such as mouse_drag, monitor_resize or redstone) into the last " +
+                    "queued one, rather than queuing each separately. This stops rapid input from filling a computer's " +
+                    "event queue, but means programs will not see every intermediate event." );
+
+            prewarmMachines = config.get( CATEGORY_EXECUTION, "prewarm_machines", ComputerCraft.prewarmMachines );
+            prewarmMachines
+                .setComment( "Prepare a fresh Lua machine in advance for computers which reboot, so they start instantly " +
+                    "the next time they are rebooted. This uses more memory for each rebooting computer." );
+
+            maxBootsPerSecond = config.get( CATEGORY_EXECUTION, "max_boots_per_second", ComputerCraft.maxBootsPerSecond );
+            maxBootsPerSecond
+                .setMinValue( 0 )
+                .setComment( "The maximum number of computers which may be turned on each second. Computers beyond this " +
+                    "limit wait in a queue, with those nearest to players being started first. This avoids stalling the " +
+                    "server when loading areas with many computers. Set to 0 to disable." );
+
+            maxConcurrentBoots = config.get( CATEGORY_EXECUTION, "max_concurrent_boots", ComputerCraft.maxConcurrentBoots );
+            maxConcurrentBoots
+                .setMinValue( 0 )
+                .setComment( "The maximum number of computers which may be starting up at once. Computers beyond this " +
+                    "limit wait in a queue, as with \"max_boots_per_second\". Set to 0 to disable." );
+
+            maxCoroutines = config.get( CATEGORY_EXECUTION, "max_coroutines", ComputerCraft.maxCoroutines );
+            maxCoroutines
+                .setMinValue( 0 )
+                .setComment( "The maximum number of coroutines which may be running across all computers. Each coroutine " +
+                    "requires its own thread, so a large number of coroutines may exhaust the server's memory. Creating " +
+                    "a coroutine beyond this limit will error. Set to 0 to disable." );
+
+            maxCoroutinesPerComputer = config.get( CATEGORY_EXECUTION, "max_coroutines_per_computer", ComputerCraft.maxCoroutinesPerComputer );
+            maxCoroutinesPerComputer
+                .setMinValue( 0 )
+                .setComment( "The maximum number of coroutines which a single computer may have running. Creating a " +
+                    "coroutine beyond this limit will error. Set to 0 to disable." );
+
+            cpuQuotaTime = config.get( CATEGORY_EXECUTION, "cpu_quota_time", (int) TimeUnit.NANOSECONDS.toMillis( ComputerCraft.cpuQuotaTime ) );
+            cpuQuotaTime
+                .setMinValue( 0 )
+                .setComment( "The maximum time (in milliseconds) a single computer may spend executing within each " +
+                    "cpu_quota_period. Computers which go over this limit are paused until they have earned enough time " +
+                    "back. Set to 0 to disable." );
+
+            cpuQuotaPeriod = config.get( CATEGORY_EXECUTION, "cpu_quota_period", (int) TimeUnit.NANOSECONDS.toSeconds( ComputerCraft.cpuQuotaPeriod ) );
+            cpuQuotaPeriod
+                .setMinValue( 1 )
+                .setComment( "The period (in seconds) over which cpu_quota_time is measured. Longer periods allow " +
+                    "computers to run for longer bursts before being paused." );
+
+            profilerInterval = config.get( CATEGORY_EXECUTION, "profiler_interval", (int) TimeUnit.NANOSECONDS.toMillis( ComputerCraft.profilerInterval ) );
+            profilerInterval
+                .setMinValue( 1 )
+                .setComment( "How often (in milliseconds) a computer being profiled with /computercraft profile records " +
+                    "its current Lua stack. Smaller intervals give more detailed profiles, but slow the computer down." );
+
             maxMainGlobalTime = config.get( CATEGORY_EXECUTION, "max_main_global_time", (int) TimeUnit.NANOSECONDS.toMillis( ComputerCraft.maxMainGlobalTime ) );
             maxMainGlobalTime
                 .setMinValue( 1 )
@@ -153,9 +248,27 @@ public final class Config
                     "Note, we will quite possibly go over this limit, as there's no way to tell how long a will take - this aims " +
                     "to be the upper bound of the average time." );
 
+            minMainGlobalTime = config.get( CATEGORY_EXECUTION, "min_main_global_time", (int) TimeUnit.NANOSECONDS.toMillis( ComputerCraft.minMainGlobalTime ) );
+            minMainGlobalTime
+                .setMinValue( 1 )
+                .setComment( "The minimum time that can be spent executing tasks in a single tick, in milliseconds.\n" +
+                    "When the rest of the server tick is slow, the global time limit is reduced (down to this value) so " +
+                    "that the server can stay at 20 ticks per second. Set this to the same as max_main_global_time to " +
+                    "always use the maximum." );
+
+            minMainComputerTime = config.get( CATEGORY_EXECUTION, "min_main_computer_time", (int) TimeUnit.NANOSECONDS.toMillis( ComputerCraft.minMainComputerTime ) );
+            minMainComputerTime
+                .setMinValue( 1 )
+                .setComment( "The minimum time a computer can execute for in a tick, in milliseconds.\n" +
+                    "The computer time limit is reduced in proportion to the global time limit. Set this to the same as " +
+                    "max_main_computer_time to always use the maximum." );
+
             setOrder(
                 CATEGORY_EXECUTION,
-                computerThreads, maxMainGlobalTime, maxMainComputerTime
+                computerThreads, maxComputerThreads, workStealing, computerGrouping, coalesceEvents, prewarmMachines,
+                maxBootsPerSecond, maxConcurrentBoots, maxCoroutines, maxCoroutinesPerComputer,
+                cpuQuotaTime, cpuQuotaPeriod, profilerInterval,
+                maxMainGlobalTime, maxMainComputerTime, minMainGlobalTime, minMainComputerTime
             );
         }
 
@@ -435,9 +548,33 @@ public final class Config
         ComputerCraft.logPeripheralErrors = logComputerErrors.getBoolean();
 
         // Execution
-        ComputerCraft.computer_threads = computerThreads.getInt();
+        ComputerCraft.computer_threads = Math.max( 1, computerThreads.getInt() );
+        ComputerCraft.maxComputerThreads = Math.max( 0, maxComputerThreads.getInt() );
+        ComputerCraft.workStealing = workStealing.getBoolean();
+        try
+        {
+            ComputerCraft.computerGrouping = ComputerGrouping.valueOf( computerGrouping.getString().toUpperCase( Locale.ROOT ) );
+        }
+        catch( IllegalArgumentException e )
+        {
+            ComputerCraft.log.error( "Unknown computer grouping " + computerGrouping.getString() );
+            ComputerCraft.computerGrouping = ComputerGrouping.NONE;
+        }
+        ComputerCraft.coalesceEvents = coalesceEvents.getBoolean();
+        ComputerCraft.prewarmMachines = prewarmMachines.getBoolean();
+        ComputerCraft.maxBootsPerSecond = Math.max( 0, maxBootsPerSecond.getInt() );
+        ComputerCraft.maxConcurrentBoots = Math.max( 0, maxConcurrentBoots.getInt() );
+        ComputerCraft.maxCoroutines = Math.max( 0, maxCoroutines.getInt() );
+        ComputerCraft.maxCoroutinesPerComputer = Math.max( 0, maxCoroutinesPerComputer.getInt() );
+        ComputerCraft.cpuQuotaTime = TimeUnit.MILLISECONDS.toNanos( Math.max( 0, cpuQuotaTime.getLong() ) );
+        ComputerCraft.cpuQuotaPeriod = TimeUnit.SECONDS.toNanos( Math.max( 1, cpuQuotaPeriod.getLong() ) );
+        ComputerCraft.profilerInterval = TimeUnit.MILLISECONDS.toNanos( Math.max( 1, profilerInterval.getLong() ) );
         ComputerCraft.maxMainGlobalTime = TimeUnit.MILLISECONDS.toNanos( Math.max( 1, maxMainGlobalTime.getLong() ) );
         ComputerCraft.maxMainComputerTime = TimeUnit.MILLISECONDS.toNanos( Math.max( 1, maxMainComputerTime.getLong() ) );
+        ComputerCraft.minMainGlobalTime = Math.min( ComputerCraft.maxMainGlobalTime, TimeUnit.MILLISECONDS.toNanos( Math.max( 1, minMainGlobalTime.getLong() ) ) );
+        ComputerCraft.minMainComputerTime = Math.min( ComputerCraft.maxMainComputerTime, TimeUnit.MILLISECONDS.toNanos( Math.max( 1, minMainComputerTime.getLong() ) ) );
+        ComputerThread.updateThreadCount();
+        Computer.invalidateSpareMachines();
 
         // HTTP
         ComputerCraft.http_enable = httpEnable.getBoolean();
@@ -8,9 +8,12 @@ package dan200.computercraft.shared.command;
 import com.google.common.collect.Sets;
 import dan200.computercraft.ComputerCraft;
 import dan200.computercraft.api.peripheral.IPeripheral;
+import dan200.computercraft.core.computer.BootQueue;
 import dan200.computercraft.core.computer.Computer;
 import dan200.computercraft.core.computer.ComputerSide;
+import dan200.computercraft.core.computer.MainThreadBudget;
 import dan200.computercraft.core.tracking.ComputerTracker;
+import dan200.computercraft.core.tracking.LuaProfiler;
 import dan200.computercraft.core.tracking.Tracking;
 import dan200.computercraft.core.tracking.TrackingContext;
 import dan200.computercraft.core.tracking.TrackingField;
@@ -32,6 +35,12 @@ import net.minecraft.util.text.TextComponentString;
 import net.minecraft.world.World;
 
 import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
 import java.util.*;
 import java.util.function.Consumer;
 
@@ -101,6 +110,11 @@ public final class CommandComputerCraft extends CommandDelegate
                     }
 
                     table.display( context.getSender() );
+
+                    if( BootQueue.isEnabled() )
+                    {
+                        context.getSender().sendMessage( translate( "commands.computercraft.dump.boot_queue", BootQueue.size() ) );
+                    }
                 }
                 else if( arguments.size() == 1 )
                 {
@@ -113,6 +127,10 @@ public final class CommandComputerCraft extends CommandDelegate
                     table.row( header( "On" ), bool( computer.isOn() ) );
                     table.row( header( "Position" ), linkPosition( context, computer ) );
                     table.row( header( "Family" ), text( computer.getFamily().toString() ) );
+                    if( ComputerCraft.cpuQuotaTime > 0 )
+                    {
+                        table.row( header( "Throttled" ), bool( computer.getComputer().isThrottled() ) );
+                    }
 
                     for( ComputerSide side : ComputerSide.values() )
                     {
@@ -335,6 +353,65 @@ public final class CommandComputerCraft extends CommandDelegate
             }
         } ) );
 
+        root.register( new SubCommandBase( "profile", UserLevel.OWNER_OP )
+        {
+            @Override
+            public void execute( @Nonnull CommandContext context, @Nonnull List<String> arguments ) throws CommandException
+            {
+                if( arguments.size() != 2 ) throw new CommandException( context.getFullUsage() );
+
+                ServerComputer serverComputer = ComputerSelector.getComputer( arguments.get( 0 ) );
+                Computer computer = serverComputer.getComputer();
+                LuaProfiler profiler = computer.getProfiler();
+                switch( arguments.get( 1 ) )
+                {
+                    case "start":
+                    {
+                        if( profiler != null ) profiler.stop();
+                        computer.setProfiler( new LuaProfiler( ComputerCraft.profilerInterval ) );
+
+                        String stopCommand = "/" + context.getFullPath() + " " + serverComputer.getInstanceID() + " stop";
+                        context.getSender().sendMessage( translate( "commands.computercraft.profile.start", serverComputer.getID(),
+                            link( text( stopCommand ), stopCommand, translate( "commands.computercraft.profile.stop.action" ) ) ) );
+                        break;
+                    }
+                    case "stop":
+                        if( profiler == null ) throw new CommandException( "commands.computercraft.profile.not_enabled" );
+                        profiler.stop();
+                        writeProfile( context, serverComputer, profiler );
+                        break;
+                    case "dump":
+                        if( profiler == null ) throw new CommandException( "commands.computercraft.profile.not_enabled" );
+                        writeProfile( context, serverComputer, profiler );
+                        break;
+                    default:
+                        throw new CommandException( context.getFullUsage() );
+                }
+            }
+
+            @Nonnull
+            @Override
+            public List<String> getCompletion( @Nonnull CommandContext context, @Nonnull List<String> arguments )
+            {
+                switch( arguments.size() )
+                {
+                    case 1:
+                        return ComputerSelector.completeComputer( arguments.get( 0 ) );
+                    case 2:
+                    {
+                        List<String> out = new ArrayList<>();
+                        for( String action : new String[] { "start", "stop", "dump" } )
+                        {
+                            if( CommandBase.doesStringStartWith( arguments.get( 1 ), action ) ) out.add( action );
+                        }
+                        return out;
+                    }
+                    default:
+                        return Collections.emptyList();
+                }
+            }
+        } );
+
         root.register( new SubCommandBase( "reload", UserLevel.OWNER_OP )
         {
             @Override
@@ -431,6 +508,30 @@ public final class CommandComputerCraft extends CommandDelegate
         }
     }
 
+    private static void writeProfile( CommandContext context, ServerComputer computer, LuaProfiler profiler ) throws CommandException
+    {
+        long samples = profiler.getSampleCount();
+        if( samples == 0 ) throw new CommandException( "commands.computercraft.profile.no_samples" );
+
+        String name = "computer_" + computer.getID() + "_" + new SimpleDateFormat( "yyyy-MM-dd_HH.mm.ss" ).format( new Date() ) + ".txt";
+        File file = new File( new File( ComputerCraft.getWorldDir(), "computercraft/profiles" ), name );
+        try
+        {
+            Files.createDirectories( file.getParentFile().toPath() );
+            try( Writer writer = Files.newBufferedWriter( file.toPath(), StandardCharsets.UTF_8 ) )
+            {
+                profiler.write( writer );
+            }
+        }
+        catch( IOException e )
+        {
+            ComputerCraft.log.error( "Cannot write profile to " + file, e );
+            throw new CommandException( "commands.computercraft.profile.error", e.getMessage() );
+        }
+
+        context.getSender().sendMessage( translate( "commands.computercraft.profile.done", samples, "computercraft/profiles/" + name ) );
+    }
+
     private static TrackingContext getTimingContext( CommandContext context )
     {
         Entity entity = context.getSender().getCommandSenderEntity();
@@ -501,6 +602,12 @@ public final class CommandComputerCraft extends CommandDelegate
         }
 
         table.display( context.getSender() );
+
+        context.getSender().sendMessage( translate( "commands.computercraft.track.budget",
+            String.format( "%.1f", MainThreadBudget.global() / 1e6 ),
+            String.format( "%.1f", MainThreadBudget.computer() / 1e6 ),
+            String.format( "%.1f", MainThreadBudget.averageTickTime() / 1e6 )
+        ) );
     }
 
     private static void withComputers( List<String> selectors, Consumer<Collection<ServerComputer>> action ) throws CommandException
@@ -10,6 +10,8 @@ import dan200.computercraft.ComputerCraft;
 import dan200.computercraft.api.lua.ILuaAPI;
 import dan200.computercraft.api.lua.ILuaContext;
 import dan200.computercraft.api.lua.LuaException;
+import dan200.computercraft.api.lua.MethodResult;
+import dan200.computercraft.core.lua.TaskCallback;
 import dan200.computercraft.shared.computer.blocks.TileCommandComputer;
 import dan200.computercraft.shared.util.NBTUtil;
 import net.minecraft.block.Block;
@@ -125,22 +127,29 @@ public class CommandAPI implements ILuaAPI
 
     @Override
     public Object[] callMethod( @Nonnull ILuaContext context, int method, @Nonnull Object[] arguments ) throws LuaException, InterruptedException
+    {
+        return callMethodResult( context, method, arguments ).evaluate( context );
+    }
+
+    @Nonnull
+    @Override
+    public MethodResult callMethodResult( @Nonnull ILuaContext context, int method, @Nonnull Object[] arguments ) throws LuaException
     {
         switch( method )
         {
             case 0: // exec
             {
                 final String command = getString( arguments, 0 );
-                return context.executeMainThreadTask( () -> doCommand( command ) );
+                return TaskCallback.make( context, () -> doCommand( command ) );
             }
             case 1: // execAsync
             {
                 final String command = getString( arguments, 0 );
                 long taskID = context.issueMainThreadTask( () -> doCommand( command ) );
-                return new Object[] { taskID };
+                return MethodResult.of( taskID );
             }
             case 2: // list
-                return context.executeMainThreadTask( () ->
+                return TaskCallback.make( context, () ->
                 {
                     List<String> result = new ArrayList<>();
                     MinecraftServer server = m_computer.getWorld().getMinecraftServer();
@@ -176,7 +185,7 @@ public class CommandAPI implements ILuaAPI
             {
                 // This is probably safe to do on the Lua thread. Probably.
                 BlockPos pos = m_computer.getPos();
-                return new Object[] { pos.getX(), pos.getY(), pos.getZ() };
+                return MethodResult.of( pos.getX(), pos.getY(), pos.getZ() );
             }
             case 4:
             {
@@ -187,7 +196,7 @@ public class CommandAPI implements ILuaAPI
                 final int maxX = getInt( arguments, 3 );
                 final int maxY = getInt( arguments, 4 );
                 final int maxZ = getInt( arguments, 5 );
-                return context.executeMainThreadTask( () ->
+                return TaskCallback.make( context, () ->
                 {
                     // Get the details of the block
                     World world = m_computer.getWorld();
@@ -230,7 +239,7 @@ public class CommandAPI implements ILuaAPI
                 final int x = getInt( arguments, 0 );
                 final int y = getInt( arguments, 1 );
                 final int z = getInt( arguments, 2 );
-                return context.executeMainThreadTask( () ->
+                return TaskCallback.make( context, () ->
                 {
                     // Get the details of the block
                     World world = m_computer.getWorld();
@@ -247,7 +256,7 @@ public class CommandAPI implements ILuaAPI
             }
             default:
             {
-                return null;
+                return MethodResult.of();
             }
         }
     }
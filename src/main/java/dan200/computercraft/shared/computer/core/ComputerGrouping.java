@@ -0,0 +1,24 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2020. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.shared.computer.core;
+
+/**
+ * How {@link ServerComputer}s should be grouped when scheduling them.
+ *
+ * @see dan200.computercraft.core.computer.IComputerEnvironment#getSchedulingGroup()
+ */
+public enum ComputerGrouping
+{
+    /**
+     * Each computer is scheduled on its own, and receives an equal share of time.
+     */
+    NONE,
+
+    /**
+     * Computers are grouped by the dimension they are in, with each dimension receiving an equal share of time.
+     */
+    DIMENSION,
+}
@@ -33,12 +33,14 @@ import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
 
 import javax.annotation.Nullable;
 import java.io.InputStream;
+import java.util.Objects;
 
 public class ServerComputer extends ServerTerminal implements IComputer, IComputerEnvironment
 {
     private final int m_instanceID;
 
     private World m_world;
+    private Integer m_dimension;
     private BlockPos m_position;
 
     private final ComputerFamily m_family;
@@ -55,6 +57,7 @@ public class ServerComputer extends ServerTerminal implements IComputer, IComput
         m_instanceID = instanceID;
 
         m_world = world;
+        m_dimension = world == null ? null : world.provider.getDimension();
         m_position = null;
 
         m_family = family;
@@ -79,7 +82,12 @@ public class ServerComputer extends ServerTerminal implements IComputer, IComput
 
     public void setWorld( World world )
     {
+        Integer dimension = world == null ? null : world.provider.getDimension();
+        boolean changed = !Objects.equals( dimension, m_dimension );
+
         m_world = world;
+        m_dimension = dimension;
+        if( changed ) m_computer.updateSchedulingGroup();
     }
 
     public BlockPos getPosition()
@@ -388,6 +396,34 @@ public class ServerComputer extends ServerTerminal implements IComputer, IComput
         return ComputerCraftAPI.createUniqueNumberedSaveDir( m_world, "computer" );
     }
 
+    @Nullable
+    @Override
+    public Object getSchedulingGroup()
+    {
+        switch( ComputerCraft.computerGrouping )
+        {
+            case DIMENSION:
+                return m_dimension;
+            case NONE:
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public double getBootPriority()
+    {
+        // Start computers nearest to players first.
+        if( m_world == null || m_position == null ) return Double.POSITIVE_INFINITY;
+
+        double distance = Double.POSITIVE_INFINITY;
+        for( EntityPlayer player : m_world.playerEntities )
+        {
+            distance = Math.min( distance, player.getDistanceSq( m_position ) );
+        }
+        return distance;
+    }
+
     @Nullable
     public IContainerComputer getContainer( EntityPlayer player )
     {
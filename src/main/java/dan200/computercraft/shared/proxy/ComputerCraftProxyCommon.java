@@ -106,6 +106,8 @@ public class ComputerCraftProxyCommon
     @Mod.EventBusSubscriber( modid = ComputerCraft.MOD_ID )
     public static final class ForgeHandlers
     {
+        private static long tickStart;
+
         private ForgeHandlers()
         {
         }
@@ -136,9 +138,14 @@ public class ComputerCraftProxyCommon
         {
             if( event.phase == TickEvent.Phase.START )
             {
+                tickStart = System.nanoTime();
                 MainThread.executePendingTasks();
                 ComputerCraft.serverComputerRegistry.update();
             }
+            else if( event.phase == TickEvent.Phase.END && tickStart != 0 )
+            {
+                MainThread.finishTick( System.nanoTime() - tickStart );
+            }
         }
 
         @SubscribeEvent
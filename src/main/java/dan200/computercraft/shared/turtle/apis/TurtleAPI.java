@@ -8,7 +8,7 @@ package dan200.computercraft.shared.turtle.apis;
 import dan200.computercraft.api.lua.ILuaAPI;
 import dan200.computercraft.api.lua.ILuaContext;
 import dan200.computercraft.api.lua.LuaException;
-import dan200.computercraft.api.turtle.ITurtleAccess;
+import dan200.computercraft.api.lua.MethodResult;
 import dan200.computercraft.api.turtle.ITurtleCommand;
 import dan200.computercraft.api.turtle.TurtleCommandResult;
 import dan200.computercraft.api.turtle.TurtleSide;
@@ -31,9 +31,9 @@ import static dan200.computercraft.api.lua.ArgumentHelper.*;
 public class TurtleAPI implements ILuaAPI
 {
     private IAPIEnvironment m_environment;
-    private ITurtleAccess m_turtle;
+    private TurtleBrain m_turtle;
 
-    public TurtleAPI( IAPIEnvironment environment, ITurtleAccess turtle )
+    public TurtleAPI( IAPIEnvironment environment, TurtleBrain turtle )
     {
         m_environment = environment;
         m_turtle = turtle;
@@ -97,9 +97,9 @@ public class TurtleAPI implements ILuaAPI
         };
     }
 
-    private Object[] tryCommand( ILuaContext context, ITurtleCommand command ) throws LuaException, InterruptedException
+    private MethodResult tryCommand( ITurtleCommand command )
     {
-        return m_turtle.executeCommand( context, command );
+        return m_turtle.executeCommand( command );
     }
 
     private int parseSlotNumber( Object[] arguments, int index ) throws LuaException
@@ -146,69 +146,76 @@ public class TurtleAPI implements ILuaAPI
 
     @Override
     public Object[] callMethod( @Nonnull ILuaContext context, int method, @Nonnull Object[] args ) throws LuaException, InterruptedException
+    {
+        return callMethodResult( context, method, args ).evaluate( context );
+    }
+
+    @Nonnull
+    @Override
+    public MethodResult callMethodResult( @Nonnull ILuaContext context, int method, @Nonnull Object[] args ) throws LuaException
     {
         switch( method )
         {
             case 0: // forward
                 m_environment.addTrackingChange( TrackingField.TURTLE_OPS );
-                return tryCommand( context, new TurtleMoveCommand( MoveDirection.Forward ) );
+                return tryCommand( new TurtleMoveCommand( MoveDirection.Forward ) );
             case 1: // back
                 m_environment.addTrackingChange( TrackingField.TURTLE_OPS );
-                return tryCommand( context, new TurtleMoveCommand( MoveDirection.Back ) );
+                return tryCommand( new TurtleMoveCommand( MoveDirection.Back ) );
             case 2: // up
                 m_environment.addTrackingChange( TrackingField.TURTLE_OPS );
-                return tryCommand( context, new TurtleMoveCommand( MoveDirection.Up ) );
+                return tryCommand( new TurtleMoveCommand( MoveDirection.Up ) );
             case 3: // down
                 m_environment.addTrackingChange( TrackingField.TURTLE_OPS );
-                return tryCommand( context, new TurtleMoveCommand( MoveDirection.Down ) );
+                return tryCommand( new TurtleMoveCommand( MoveDirection.Down ) );
             case 4: // turnLeft
                 m_environment.addTrackingChange( TrackingField.TURTLE_OPS );
-                return tryCommand( context, new TurtleTurnCommand( TurnDirection.Left ) );
+                return tryCommand( new TurtleTurnCommand( TurnDirection.Left ) );
             case 5: // turnRight
                 m_environment.addTrackingChange( TrackingField.TURTLE_OPS );
-                return tryCommand( context, new TurtleTurnCommand( TurnDirection.Right ) );
+                return tryCommand( new TurtleTurnCommand( TurnDirection.Right ) );
             case 6:
             {
                 // dig
                 TurtleSide side = parseSide( args, 0 );
                 m_environment.addTrackingChange( TrackingField.TURTLE_OPS );
-                return tryCommand( context, TurtleToolCommand.dig( InteractDirection.Forward, side ) );
+                return tryCommand( TurtleToolCommand.dig( InteractDirection.Forward, side ) );
             }
             case 7:
             {
                 // digUp
                 TurtleSide side = parseSide( args, 0 );
                 m_environment.addTrackingChange( TrackingField.TURTLE_OPS );
-                return tryCommand( context, TurtleToolCommand.dig( InteractDirection.Up, side ) );
+                return tryCommand( TurtleToolCommand.dig( InteractDirection.Up, side ) );
             }
             case 8:
             {
                 // digDown
                 TurtleSide side = parseSide( args, 0 );
                 m_environment.addTrackingChange( TrackingField.TURTLE_OPS );
-                return tryCommand( context, TurtleToolCommand.dig( InteractDirection.Down, side ) );
+                return tryCommand( TurtleToolCommand.dig( InteractDirection.Down, side ) );
             }
             case 9: // place
                 m_environment.addTrackingChange( TrackingField.TURTLE_OPS );
-                return tryCommand( context, new TurtlePlaceCommand( InteractDirection.Forward, args ) );
+                return tryCommand( new TurtlePlaceCommand( InteractDirection.Forward, args ) );
             case 10: // placeUp
                 m_environment.addTrackingChange( TrackingField.TURTLE_OPS );
-                return tryCommand( context, new TurtlePlaceCommand( InteractDirection.Up, args ) );
+                return tryCommand( new TurtlePlaceCommand( InteractDirection.Up, args ) );
             case 11: // placeDown
                 m_environment.addTrackingChange( TrackingField.TURTLE_OPS );
-                return tryCommand( context, new TurtlePlaceCommand( InteractDirection.Down, args ) );
+                return tryCommand( new TurtlePlaceCommand( InteractDirection.Down, args ) );
             case 12:
             {
                 // drop
                 int count = parseCount( args, 0 );
                 m_environment.addTrackingChange( TrackingField.TURTLE_OPS );
-                return tryCommand( context, new TurtleDropCommand( InteractDirection.Forward, count ) );
+                return tryCommand( new TurtleDropCommand( InteractDirection.Forward, count ) );
             }
             case 13:
             {
                 // select
                 int slot = parseSlotNumber( args, 0 );
-                return tryCommand( context, turtle -> {
+                return tryCommand( turtle -> {
                     turtle.setSelectedSlot( slot );
                     return TurtleCommandResult.success();
                 } );
@@ -218,121 +225,121 @@ public class TurtleAPI implements ILuaAPI
                 // getItemCount
                 int slot = parseOptionalSlotNumber( args, 0, m_turtle.getSelectedSlot() );
                 ItemStack stack = m_turtle.getInventory().getStackInSlot( slot );
-                return new Object[] { stack.getCount() };
+                return MethodResult.of( stack.getCount() );
             }
             case 15:
             {
                 // getItemSpace
                 int slot = parseOptionalSlotNumber( args, 0, m_turtle.getSelectedSlot() );
                 ItemStack stack = m_turtle.getInventory().getStackInSlot( slot );
-                return new Object[] { stack.isEmpty() ? 64 : Math.min( stack.getMaxStackSize(), 64 ) - stack.getCount() };
+                return MethodResult.of( stack.isEmpty() ? 64 : Math.min( stack.getMaxStackSize(), 64 ) - stack.getCount() );
             }
             case 16: // detect
-                return tryCommand( context, new TurtleDetectCommand( InteractDirection.Forward ) );
+                return tryCommand( new TurtleDetectCommand( InteractDirection.Forward ) );
             case 17: // detectUp
-                return tryCommand( context, new TurtleDetectCommand( InteractDirection.Up ) );
+                return tryCommand( new TurtleDetectCommand( InteractDirection.Up ) );
             case 18: // detectDown
-                return tryCommand( context, new TurtleDetectCommand( InteractDirection.Down ) );
+                return tryCommand( new TurtleDetectCommand( InteractDirection.Down ) );
             case 19: // compare
-                return tryCommand( context, new TurtleCompareCommand( InteractDirection.Forward ) );
+                return tryCommand( new TurtleCompareCommand( InteractDirection.Forward ) );
             case 20: // compareUp
-                return tryCommand( context, new TurtleCompareCommand( InteractDirection.Up ) );
+                return tryCommand( new TurtleCompareCommand( InteractDirection.Up ) );
             case 21: // compareDown
-                return tryCommand( context, new TurtleCompareCommand( InteractDirection.Down ) );
+                return tryCommand( new TurtleCompareCommand( InteractDirection.Down ) );
             case 22:
             {
                 // attack
                 TurtleSide side = parseSide( args, 0 );
                 m_environment.addTrackingChange( TrackingField.TURTLE_OPS );
-                return tryCommand( context, TurtleToolCommand.attack( InteractDirection.Forward, side ) );
+                return tryCommand( TurtleToolCommand.attack( InteractDirection.Forward, side ) );
             }
             case 23:
             {
                 // attackUp
                 TurtleSide side = parseSide( args, 0 );
                 m_environment.addTrackingChange( TrackingField.TURTLE_OPS );
-                return tryCommand( context, TurtleToolCommand.attack( InteractDirection.Up, side ) );
+                return tryCommand( TurtleToolCommand.attack( InteractDirection.Up, side ) );
             }
             case 24:
             {
                 // attackDown
                 TurtleSide side = parseSide( args, 0 );
                 m_environment.addTrackingChange( TrackingField.TURTLE_OPS );
-                return tryCommand( context, TurtleToolCommand.attack( InteractDirection.Down, side ) );
+                return tryCommand( TurtleToolCommand.attack( InteractDirection.Down, side ) );
             }
             case 25:
             {
                 // dropUp
                 int count = parseCount( args, 0 );
                 m_environment.addTrackingChange( TrackingField.TURTLE_OPS );
-                return tryCommand( context, new TurtleDropCommand( InteractDirection.Up, count ) );
+                return tryCommand( new TurtleDropCommand( InteractDirection.Up, count ) );
             }
             case 26:
             {
                 // dropDown
                 int count = parseCount( args, 0 );
                 m_environment.addTrackingChange( TrackingField.TURTLE_OPS );
-                return tryCommand( context, new TurtleDropCommand( InteractDirection.Down, count ) );
+                return tryCommand( new TurtleDropCommand( InteractDirection.Down, count ) );
             }
             case 27:
             {
                 // suck
                 int count = parseCount( args, 0 );
                 m_environment.addTrackingChange( TrackingField.TURTLE_OPS );
-                return tryCommand( context, new TurtleSuckCommand( InteractDirection.Forward, count ) );
+                return tryCommand( new TurtleSuckCommand( InteractDirection.Forward, count ) );
             }
             case 28:
             {
                 // suckUp
                 int count = parseCount( args, 0 );
                 m_environment.addTrackingChange( TrackingField.TURTLE_OPS );
-                return tryCommand( context, new TurtleSuckCommand( InteractDirection.Up, count ) );
+                return tryCommand( new TurtleSuckCommand( InteractDirection.Up, count ) );
             }
             case 29:
             {
                 // suckDown
                 int count = parseCount( args, 0 );
                 m_environment.addTrackingChange( TrackingField.TURTLE_OPS );
-                return tryCommand( context, new TurtleSuckCommand( InteractDirection.Down, count ) );
+                return tryCommand( new TurtleSuckCommand( InteractDirection.Down, count ) );
             }
             case 30: // getFuelLevel
-                return new Object[] { m_turtle.isFuelNeeded() ? m_turtle.getFuelLevel() : "unlimited" };
+                return MethodResult.of( m_turtle.isFuelNeeded() ? m_turtle.getFuelLevel() : "unlimited" );
             case 31:
             {
                 // refuel
                 int count = optInt( args, 0, Integer.MAX_VALUE );
                 if( count < 0 ) throw new LuaException( "Refuel count " + count + " out of range" );
-                return tryCommand( context, new TurtleRefuelCommand( count ) );
+                return tryCommand( new TurtleRefuelCommand( count ) );
             }
             case 32:
             {
                 // compareTo
                 int slot = parseSlotNumber( args, 0 );
-                return tryCommand( context, new TurtleCompareToCommand( slot ) );
+                return tryCommand( new TurtleCompareToCommand( slot ) );
             }
             case 33:
             {
                 // transferTo
                 int slot = parseSlotNumber( args, 0 );
                 int count = parseCount( args, 1 );
-                return tryCommand( context, new TurtleTransferToCommand( slot, count ) );
+                return tryCommand( new TurtleTransferToCommand( slot, count ) );
             }
             case 34: // getSelectedSlot
-                return new Object[] { m_turtle.getSelectedSlot() + 1 };
+                return MethodResult.of( m_turtle.getSelectedSlot() + 1 );
             case 35: // getFuelLimit
-                return new Object[] { m_turtle.isFuelNeeded() ? m_turtle.getFuelLimit() : "unlimited" };
+                return MethodResult.of( m_turtle.isFuelNeeded() ? m_turtle.getFuelLimit() : "unlimited" );
             case 36: // equipLeft
                 m_environment.addTrackingChange( TrackingField.TURTLE_OPS );
-                return tryCommand( context, new TurtleEquipCommand( TurtleSide.Left ) );
+                return tryCommand( new TurtleEquipCommand( TurtleSide.Left ) );
             case 37: // equipRight
                 m_environment.addTrackingChange( TrackingField.TURTLE_OPS );
-                return tryCommand( context, new TurtleEquipCommand( TurtleSide.Right ) );
+                return tryCommand( new TurtleEquipCommand( TurtleSide.Right ) );
             case 38: // inspect
-                return tryCommand( context, new TurtleInspectCommand( InteractDirection.Forward ) );
+                return tryCommand( new TurtleInspectCommand( InteractDirection.Forward ) );
             case 39: // inspectUp
-                return tryCommand( context, new TurtleInspectCommand( InteractDirection.Up ) );
+                return tryCommand( new TurtleInspectCommand( InteractDirection.Up ) );
             case 40: // inspectDown
-                return tryCommand( context, new TurtleInspectCommand( InteractDirection.Down ) );
+                return tryCommand( new TurtleInspectCommand( InteractDirection.Down ) );
             case 41: // getItemDetail
             {
                 // FIXME: There's a race condition here if the stack is being modified (mutating NBT, etc...)
@@ -340,7 +347,7 @@ public class TurtleAPI implements ILuaAPI
                 //  on this having a 0-tick delay.
                 int slot = parseOptionalSlotNumber( args, 0, m_turtle.getSelectedSlot() );
                 ItemStack stack = m_turtle.getInventory().getStackInSlot( slot );
-                if( stack.isEmpty() ) return new Object[] { null };
+                if( stack.isEmpty() ) return MethodResult.of( (Object) null );
 
                 Item item = stack.getItem();
                 String name = Item.REGISTRY.getNameForObject( item ).toString();
@@ -353,13 +360,13 @@ public class TurtleAPI implements ILuaAPI
                 table.put( "count", count );
 
                 TurtleActionEvent event = new TurtleInspectItemEvent( m_turtle, stack, table );
-                if( MinecraftForge.EVENT_BUS.post( event ) ) return new Object[] { false, event.getFailureMessage() };
+                if( MinecraftForge.EVENT_BUS.post( event ) ) return MethodResult.of( false, event.getFailureMessage() );
 
-                return new Object[] { table };
+                return MethodResult.of( table );
             }
 
             default:
-                return null;
+                return MethodResult.of();
         }
     }
 }
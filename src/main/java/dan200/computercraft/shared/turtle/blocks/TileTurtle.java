@@ -90,7 +90,7 @@ public class TileTurtle extends TileComputerBase implements ITurtleTile, Default
             ComputerCraft.terminalWidth_turtle, ComputerCraft.terminalHeight_turtle
         );
         computer.setPosition( getPos() );
-        computer.addAPI( new TurtleAPI( computer.getAPIEnvironment(), getAccess() ) );
+        computer.addAPI( new TurtleAPI( computer.getAPIEnvironment(), m_brain ) );
         m_brain.setupComputer( computer );
         return computer;
     }
@@ -9,6 +9,7 @@ import dan200.computercraft.api.lua.ILuaContext;
 import dan200.computercraft.api.lua.ILuaObject;
 import dan200.computercraft.api.lua.ILuaTask;
 import dan200.computercraft.api.lua.LuaException;
+import dan200.computercraft.core.lua.LuaBytes;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -43,14 +44,25 @@ public class ObjectWrapper implements ILuaContext
         int method = findMethod( name );
         if( method < 0 ) throw new IllegalStateException( "No such method '" + name + "'" );
 
+        Object[] result;
         try
         {
-            return object.callMethod( this, method, args );
+            result = object.callMethod( this, method, args );
         }
         catch( InterruptedException e )
         {
             throw new IllegalStateException( "Should never be interrupted", e );
         }
+
+        // Unwrap byte strings in the same way the Lua machine would.
+        if( result != null )
+        {
+            for( int i = 0; i < result.length; i++ )
+            {
+                if( result[i] instanceof LuaBytes ) result[i] = ((LuaBytes) result[i]).toByteArray();
+            }
+        }
+        return result;
     }
 
     @SuppressWarnings( "unchecked" )
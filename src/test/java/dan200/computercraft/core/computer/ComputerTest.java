@@ -30,4 +30,19 @@ public class ComputerTest
             Assertions.fail( "Expected computer to timeout" );
         } );
     }
+
+    /**
+     * Ensures events queued while the computer is running are not discarded, even if they do not match the filter
+     * of the event currently being handled.
+     */
+    @Test
+    public void testEventQueuedWhileRunning()
+    {
+        assertTimeoutPreemptively( ofSeconds( 20 ), () -> ComputerBootstrap.run(
+            "os.queueEvent('first') os.pullEvent('first') " +
+                "os.queueEvent('second') os.startTimer(2) " +
+                "local event = os.pullEvent() " +
+                "assertion.assert(event == 'second', 'Expected second, got ' .. event)"
+        ) );
+    }
 }
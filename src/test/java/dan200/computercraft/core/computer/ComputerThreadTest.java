@@ -0,0 +1,161 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2020. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.computer;
+
+import dan200.computercraft.ComputerCraft;
+import dan200.computercraft.api.lua.ILuaAPI;
+import dan200.computercraft.api.lua.ILuaContext;
+import dan200.computercraft.core.filesystem.MemoryMount;
+import dan200.computercraft.core.terminal.Terminal;
+import org.apache.logging.log4j.LogManager;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.time.Duration.ofSeconds;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ComputerThreadTest
+{
+    private static final int RUNNERS = 64;
+
+    /**
+     * The maximum time between a task's hard abort deadline passing, and the task being aborted. This is generous, as
+     * it only needs to show the task was aborted by the hard abort stage, rather than at the next one, which runs
+     * {@link TimeoutState#ABORT_TIMEOUT} later.
+     */
+    private static final long MAX_LATENCY = TimeoutState.ABORT_TIMEOUT / 2;
+
+    /**
+     * Ensures deadlines are ordered by when they expire, even when {@link System#nanoTime()} overflows.
+     */
+    @Test
+    public void testDeadlineOrder()
+    {
+        long base = Long.MAX_VALUE - TimeUnit.SECONDS.toNanos( 1 );
+        ComputerThread.Deadline early = new ComputerThread.Deadline( null, base );
+        ComputerThread.Deadline middle = new ComputerThread.Deadline( null, base + TimeUnit.SECONDS.toNanos( 1 ) );
+        ComputerThread.Deadline late = new ComputerThread.Deadline( null, base + TimeUnit.SECONDS.toNanos( 2 ) );
+        assertTrue( late.time < 0, "Deadline should have overflowed" );
+
+        assertTrue( early.compareTo( middle ) < 0 );
+        assertTrue( middle.compareTo( late ) < 0 );
+        assertTrue( late.compareTo( early ) > 0 );
+        assertEquals( 0, middle.compareTo( middle ) );
+
+        DelayQueue<ComputerThread.Deadline> queue = new DelayQueue<>();
+        queue.add( late );
+        queue.add( early );
+        queue.add( middle );
+        assertSame( early, queue.peek() );
+    }
+
+    /**
+     * Run a computer on each of {@link #RUNNERS} threads, all of which block until they are hard aborted, and ensure
+     * they are aborted once their deadline expires.
+     *
+     * The latency bound is deliberately loose, so this is not sensitive to a busy machine. The measured latencies are
+     * logged for comparison.
+     */
+    @Test
+    public void testAbortLatency()
+    {
+        ComputerCraft.log = LogManager.getLogger( ComputerCraft.MOD_ID );
+
+        int oldThreads = ComputerCraft.computer_threads;
+        ComputerCraft.computer_threads = RUNNERS;
+        ComputerThread.updateThreadCount();
+
+        try
+        {
+            assertTimeoutPreemptively( ofSeconds( 30 ), () -> {
+                ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+
+                List<Computer> computers = new ArrayList<>( RUNNERS );
+                for( int i = 0; i < RUNNERS; i++ )
+                {
+                    MemoryMount mount = new MemoryMount().addFile( "startup", "blocker.block()" );
+                    Terminal term = new Terminal( ComputerCraft.terminalWidth_computer, ComputerCraft.terminalHeight_computer );
+                    Computer computer = new Computer( new BasicEnvironment( mount ), term, i );
+                    computer.addApi( new BlockingApi( computer.getExecutor().timeout, latencies ) );
+                    computer.turnOn();
+                    computers.add( computer );
+                }
+
+                while( latencies.size() < RUNNERS )
+                {
+                    for( Computer computer : computers ) computer.tick();
+                    MainThread.executePendingTasks();
+                    Thread.sleep( 50 );
+                }
+
+                for( Computer computer : computers ) computer.shutdown();
+
+                long total = 0;
+                for( long latency : latencies ) total += latency;
+                long max = latencies.stream().mapToLong( x -> x ).max().orElse( 0 );
+
+                ComputerCraft.log.info( "Hard abort latency with {} runners: average {}ms, max {}ms",
+                    RUNNERS, total * 1e-6 / RUNNERS, max * 1e-6 );
+                assertTrue( max < MAX_LATENCY, () -> "Hard abort took too long: " + max * 1e-6 + "ms" );
+            } );
+        }
+        finally
+        {
+            ComputerCraft.computer_threads = oldThreads;
+            ComputerThread.updateThreadCount();
+        }
+    }
+
+    /**
+     * An API which blocks without yielding, ignoring soft aborts, until the computer is hard aborted.
+     */
+    private static class BlockingApi implements ILuaAPI
+    {
+        private final TimeoutState timeout;
+        private final ConcurrentLinkedQueue<Long> latencies;
+
+        BlockingApi( TimeoutState timeout, ConcurrentLinkedQueue<Long> latencies )
+        {
+            this.timeout = timeout;
+            this.latencies = latencies;
+        }
+
+        @Override
+        public String[] getNames()
+        {
+            return new String[] { "blocker" };
+        }
+
+        @Nonnull
+        @Override
+        public String[] getMethodNames()
+        {
+            return new String[] { "block" };
+        }
+
+        @Nullable
+        @Override
+        public Object[] callMethod( @Nonnull ILuaContext context, int method, @Nonnull Object[] arguments )
+        {
+            long deadline = timeout.hardAbortDeadline();
+            while( !timeout.isHardAborted() )
+            {
+                LockSupport.parkNanos( TimeUnit.MICROSECONDS.toNanos( 100 ) );
+            }
+
+            latencies.add( System.nanoTime() - deadline );
+            return null;
+        }
+    }
+}
@@ -16,8 +16,12 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.Stack;
+import java.util.regex.Pattern;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class FileSystemTest
 {
@@ -54,4 +58,177 @@ public class FileSystemTest
 
         assertEquals( "Tiny line", Files.toString( new File( ROOT, "out.txt" ), StandardCharsets.UTF_8 ) );
     }
+
+    /**
+     * Ensures paths are resolved to the deepest mount which contains them.
+     *
+     * @throws FileSystemException When the file system cannot be constructed.
+     */
+    @Test
+    public void testDeepestMount() throws FileSystemException
+    {
+        FileSystem fs = new FileSystem( "hdd", new MemoryMount() );
+        fs.mount( "outer", "a", new MemoryMount() );
+        fs.mount( "inner", "a/b", new MemoryMount() );
+
+        assertEquals( "hdd", fs.getMountLabel( "" ) );
+        assertEquals( "hdd", fs.getMountLabel( "x/y" ) );
+        assertEquals( "outer", fs.getMountLabel( "a" ) );
+        assertEquals( "outer", fs.getMountLabel( "a/c" ) );
+        assertEquals( "outer", fs.getMountLabel( "a/bc" ) );
+        assertEquals( "inner", fs.getMountLabel( "a/b" ) );
+        assertEquals( "inner", fs.getMountLabel( "a/b/c/d" ) );
+        assertEquals( "inner", fs.getMountLabel( "a/x/../b/c" ) );
+    }
+
+    /**
+     * Ensures mounts are listed in their parent directory exactly once, and only there.
+     *
+     * @throws FileSystemException When the file system cannot be constructed.
+     */
+    @Test
+    public void testListMounts() throws FileSystemException
+    {
+        FileSystem fs = new FileSystem( "hdd", new MemoryMount() );
+        fs.mount( "disk", "disk", new MemoryMount() );
+        fs.mount( "rom", "rom", new MemoryMount() );
+        fs.mount( "apis", "rom/apis", new MemoryMount() );
+
+        assertArrayEquals( new String[] { "disk", "rom" }, fs.list( "" ) );
+        assertArrayEquals( new String[] { "apis" }, fs.list( "rom" ) );
+        assertArrayEquals( new String[0], fs.list( "disk" ) );
+    }
+
+    /**
+     * Ensures mounting at an existing location replaces the previous mount.
+     *
+     * @throws FileSystemException When the file system cannot be constructed.
+     */
+    @Test
+    public void testRemount() throws FileSystemException
+    {
+        FileSystem fs = new FileSystem( "hdd", new MemoryMount() );
+        fs.mount( "first", "a", new MemoryMount() );
+        fs.mount( "second", "a", new MemoryMount() );
+
+        assertEquals( "second", fs.getMountLabel( "a/b" ) );
+        assertArrayEquals( new String[] { "a" }, fs.list( "" ) );
+    }
+
+    /**
+     * Ensures unmounting removes the mount and any directories which only existed to contain it, and that we can mount
+     * at the same location again.
+     *
+     * @throws FileSystemException When the file system cannot be constructed.
+     */
+    @Test
+    public void testUnmount() throws FileSystemException
+    {
+        MemoryMount root = new MemoryMount();
+        root.makeDirectory( "a/b" );
+
+        FileSystem fs = new FileSystem( "hdd", root );
+        fs.mount( "outer", "a", new MemoryMount() );
+        fs.mount( "inner", "a/b/c", new MemoryMount() );
+
+        fs.unmount( "a/b/c" );
+        assertEquals( "outer", fs.getMountLabel( "a/b/c" ) );
+        assertArrayEquals( new String[] { "a" }, fs.list( "" ) );
+
+        fs.unmount( "a" );
+        assertEquals( "hdd", fs.getMountLabel( "a/b/c" ) );
+        assertArrayEquals( new String[0], fs.list( "" ) );
+        assertArrayEquals( new String[0], fs.list( "a/b" ) );
+
+        fs.mount( "inner", "a/b/c", new MemoryMount() );
+        assertEquals( "inner", fs.getMountLabel( "a/b/c" ) );
+        assertArrayEquals( new String[] { "c" }, fs.list( "a/b" ) );
+    }
+
+    /**
+     * Ensures paths above the root are not contained in any mount.
+     *
+     * @throws FileSystemException When the file system cannot be constructed.
+     */
+    @Test
+    public void testAboveRoot() throws FileSystemException
+    {
+        FileSystem fs = new FileSystem( "hdd", new MemoryMount() );
+
+        FileSystemException e = assertThrows( FileSystemException.class, () -> fs.getMountLabel( "../a" ) );
+        assertEquals( "/../a: Invalid Path", e.getMessage() );
+
+        e = assertThrows( FileSystemException.class, () -> fs.exists( ".." ) );
+        assertEquals( "/..: Invalid Path", e.getMessage() );
+    }
+
+    /**
+     * Ensures {@link FileSystem#sanitizePath(String, boolean)} behaves the same as the original, much simpler,
+     * implementation on a large number of random paths.
+     */
+    @Test
+    public void testSanitizeMatchesReference()
+    {
+        char[] alphabet = new char[] { 'a', 'b', '.', '.', '.', '/', '/', '\\', '*', ':', ' ', '\u0001' };
+        Random random = new Random( 0 );
+        for( int i = 0; i < 100000; i++ )
+        {
+            StringBuilder builder = new StringBuilder();
+            int length = random.nextInt( 20 );
+            for( int j = 0; j < length; j++ ) builder.append( alphabet[random.nextInt( alphabet.length )] );
+
+            // Occasionally add a long component, to check we truncate them correctly.
+            if( random.nextInt( 50 ) == 0 )
+            {
+                int extra = 250 + random.nextInt( 10 );
+                for( int j = 0; j < extra; j++ ) builder.append( random.nextBoolean() ? 'x' : '.' );
+            }
+
+            String path = builder.toString();
+            boolean wildcards = random.nextBoolean();
+            assertEquals( referenceSanitize( path, wildcards ), FileSystem.sanitizePath( path, wildcards ), () -> "Sanitising \"" + path + "\"" );
+        }
+    }
+
+    private static final Pattern THREE_DOTS = Pattern.compile( "^\\.{3,}$" );
+
+    private static String referenceSanitize( String path, boolean allowWildcards )
+    {
+        path = path.replace( '\\', '/' );
+
+        char[] specialChars = new char[] { '"', ':', '<', '>', '?', '|' };
+        StringBuilder cleanName = new StringBuilder();
+        for( int i = 0; i < path.length(); i++ )
+        {
+            char c = path.charAt( i );
+            if( c >= 32 && Arrays.binarySearch( specialChars, c ) < 0 && (allowWildcards || c != '*') )
+            {
+                cleanName.append( c );
+            }
+        }
+
+        Stack<String> outputParts = new Stack<>();
+        for( String part : cleanName.toString().split( "/" ) )
+        {
+            if( part.isEmpty() || part.equals( "." ) || THREE_DOTS.matcher( part ).matches() ) continue;
+
+            if( part.equals( ".." ) )
+            {
+                if( !outputParts.empty() && !outputParts.peek().equals( ".." ) )
+                {
+                    outputParts.pop();
+                }
+                else
+                {
+                    outputParts.push( ".." );
+                }
+            }
+            else
+            {
+                outputParts.push( part.length() >= 255 ? part.substring( 0, 255 ) : part );
+            }
+        }
+
+        return String.join( "/", outputParts );
+    }
 }
@@ -0,0 +1,40 @@
+describe("The redstone library", function()
+    describe("redstone.setOutput", function()
+        it("validates the side before the value", function()
+            expect.error(redstone.setOutput, "bogus", "x"):eq("Invalid side.")
+            expect.error(redstone.setOutput, nil, "x"):eq("bad argument #1 (expected string, got nil)")
+        end)
+
+        it("validates the value", function()
+            expect.error(redstone.setOutput, "top", "x"):eq("bad argument #2 (expected boolean, got string)")
+        end)
+    end)
+
+    describe("redstone.setBundledOutput", function()
+        it("validates the side before the value", function()
+            expect.error(redstone.setBundledOutput, "bogus", "x"):eq("Invalid side.")
+            expect.error(redstone.setBundledOutput, "top", "x"):eq("bad argument #2 (expected number, got string)")
+        end)
+    end)
+
+    describe("redstone.testBundledInput", function()
+        it("validates the side before the mask", function()
+            expect.error(redstone.testBundledInput, "bogus", "x"):eq("Invalid side.")
+            expect.error(redstone.testBundledInput, "top", "x"):eq("bad argument #2 (expected number, got string)")
+        end)
+    end)
+
+    describe("redstone.setAnalogOutput", function()
+        it("validates the side before the value", function()
+            expect.error(redstone.setAnalogOutput, "bogus", "x"):eq("Invalid side.")
+            expect.error(redstone.setAnalogOutput, "top", "x"):eq("bad argument #2 (expected number, got string)")
+            expect.error(redstone.setAnalogOutput, "top", 16):eq("Expected number in range 0-15")
+        end)
+    end)
+
+    describe("redstone.getOutput", function()
+        it("validates the side", function()
+            expect.error(redstone.getOutput, "bogus"):eq("Invalid side.")
+        end)
+    end)
+end)